@@ -10,6 +10,7 @@ import static sg.edu.nus.comp.cs4218.impl.util.StringUtils.*;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -297,10 +298,35 @@ public class CatApplicationIT {
             String[] splitText = CAT_TEXT1.split(STRING_NEWLINE);
             assertEquals(String.format(NUMBER_FORMAT, 1) + "\t" + splitText[0] +
                     "\n" + String.format(NUMBER_FORMAT, 2) + "\t" + splitText[1] +
-                    "\n" + String.format(NUMBER_FORMAT, 1) + "\t" + CAT_TEXT2, stdout.toString());
+                    "\n" + String.format(NUMBER_FORMAT, 3) + "\t" + CAT_TEXT2, stdout.toString());
         } catch (CatException e) {
             fail();
         }
     }
 
+    /**
+     * This tests that files are copied byte for byte when the output stream is itself a file.
+     */
+    @Test
+    public void run_catMultipleFilesToFileOutput_ShouldWriteConcatFileContents() throws IOException {
+        Path outputFile = Files.createTempFile(testDir.toPath(), "output", TXT_POSTFIX);
+        try (OutputStream fileOutput = new FileOutputStream(outputFile.toFile())) {
+            String[] args = {text1File.toFile().getPath(), STRING_STDIN_DASH, text4File.toFile().getPath()};
+            catApp.run(args, new ByteArrayInputStream("stdin".getBytes()), fileOutput);
+        } catch (CatException e) {
+            fail();
+        }
+        assertEquals(CAT_TEXT1 + "stdin\n" + CAT_TEXT4, Files.readString(outputFile));
+    }
+
+    /**
+     * This tests that nothing is written when a later file does not exist.
+     */
+    @Test
+    public void run_catValidFileThenMissingFile_ShouldWriteNothing() {
+        String[] args = {text1File.toFile().getPath(), "missing.txt"};
+        Throwable exception = assertThrows(CatException.class, () -> catApp.run(args, System.in, stdout));
+        assertEquals(CAT_PREFIX + ERR_FILE_NOT_FOUND, exception.getMessage());
+        assertEquals("", stdout.toString());
+    }
 }
@@ -247,9 +247,8 @@ public class CatApplicationPublicIT {
         String expectedText = String.format(NUMBER_FORMAT, 1) + "\tTest line 1.1\n" +
                 String.format(NUMBER_FORMAT, 2) + "\tTest line 1.2\n" +
                 String.format(NUMBER_FORMAT, 3) + "\tTest line 1.3" +
-                // String.format(NUMBER_FORMAT, 3) + "\tTest line 1.3\n" +
-                String.format(NUMBER_FORMAT, 1) + "\tTest line 2.1\n" +
-                String.format(NUMBER_FORMAT, 2) + "\tTest line 2.2";
+                "Test line 2.1\n" +
+                String.format(NUMBER_FORMAT, 4) + "\tTest line 2.2";
         createFile(fileName1, text1);
         createFile(fileName2, text2);
         catApplication.run(toArgs("n", fileName1, fileName2), System.in, output);
@@ -368,7 +368,7 @@ public class CatApplicationTest {
             String output = catApp.catFiles(true, args);
             assertEquals(String.format(NUMBER_FORMAT, 1) + "\t" + CAT_TEXT1.split(STRING_NEWLINE)[0] +
                     STRING_NEWLINE + String.format(NUMBER_FORMAT, 2) + "\t" + CAT_TEXT1.split(STRING_NEWLINE)[1] +
-                    STRING_NEWLINE + String.format(NUMBER_FORMAT, 1) + "\t" + CAT_TEXT2, output);
+                    STRING_NEWLINE + String.format(NUMBER_FORMAT, 3) + "\t" + CAT_TEXT2, output);
         } catch (CatException e) {
             fail();
         }
@@ -456,7 +456,7 @@ public class CatApplicationTest {
     }
 
     /**
-     * This tests that catFileAndStdin will cat stdin and files correctly with numbered lines.
+     * This tests that catFileAndStdin will cat stdin and files correctly with lines numbered continuously across inputs.
      */
     @Test
     public void catFileAndStdin_catStdinFirstWithTwoFilesWithNFlag_ShouldReturnCorrectOutput() {
@@ -470,12 +470,12 @@ public class CatApplicationTest {
             String[] splitText2 = CAT_TEXT3.split(STRING_NEWLINE);
 
             assertEquals(String.format(NUMBER_FORMAT, 1) + "\t" + splitText1[0] + STRING_NEWLINE +
-                    String.format(NUMBER_FORMAT, 1) + "\t" + splitText2[0] + STRING_NEWLINE +
-                    String.format(NUMBER_FORMAT, 2) + "\t" + splitText2[1] + STRING_NEWLINE +
-                    String.format(NUMBER_FORMAT, 3) + "\t" + splitText2[2] + STRING_NEWLINE +
-                    String.format(NUMBER_FORMAT, 4) + "\t" + STRING_NEWLINE +
+                    String.format(NUMBER_FORMAT, 2) + "\t" + splitText2[0] + STRING_NEWLINE +
+                    String.format(NUMBER_FORMAT, 3) + "\t" + splitText2[1] + STRING_NEWLINE +
+                    String.format(NUMBER_FORMAT, 4) + "\t" + splitText2[2] + STRING_NEWLINE +
                     String.format(NUMBER_FORMAT, 5) + "\t" + STRING_NEWLINE +
-                    String.format(NUMBER_FORMAT, 1) + "\t" + input, output);
+                    String.format(NUMBER_FORMAT, 6) + "\t" + STRING_NEWLINE +
+                    String.format(NUMBER_FORMAT, 7) + "\t" + input, output);
         } catch (CatException e) {
             fail();
         }
@@ -495,4 +495,26 @@ public class CatApplicationTest {
             fail();
         }
     }
+
+    /**
+     * This tests that line numbers carry on across files and stdin, and widen past six digits.
+     */
+    @Test
+    public void catFileAndStdin_catFileWithStdinBetweenWithNFlag_ShouldNumberContinuously() {
+        try {
+            StringBuilder input = new StringBuilder();
+            for (int i = 0; i < 1_000_000; i++) {
+                input.append(STRING_NEWLINE);
+            }
+            InputStream stdin = new ByteArrayInputStream(input.toString().getBytes());
+
+            String[] args = {textAFile.toFile().getPath(), STRING_STDIN_DASH, textBFile.toFile().getPath()};
+            String output = catApp.catFileAndStdin(true, stdin, args);
+
+            assertTrue(output.startsWith("     1\ta\n     2\t\n     3\t\n"));
+            assertTrue(output.endsWith("\n999999\t\n1000000\t\n1000001\tb\n"));
+        } catch (CatException e) {
+            fail();
+        }
+    }
 }
@@ -3,8 +3,10 @@ package sg.edu.nus.comp.cs4218.impl.app;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import sg.edu.nus.comp.cs4218.exception.CutException;
+import sg.edu.nus.comp.cs4218.impl.parser.CutArgsParser;
 
 import java.io.*;
+import java.util.Arrays;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static sg.edu.nus.comp.cs4218.impl.util.ErrorConstants.*;
@@ -314,7 +316,126 @@ public class CutApplicationIT { //NOPMD
         }
     }
 
+    /**
+     * Tests that fields are cut on the given delimiter and joined by it, in field order.
+     */
+    @Test
+    public void run_FieldOptionWithDelimiter_PrintSelectedFields() {
+        stdIn = new ByteArrayInputStream("a,b,c,d\n1,2,3,4\n".getBytes());
+        try {
+            cutApp.run(new String[]{"-d", ",", "-f", "4,1-2"}, stdIn, stdOut);
+        } catch (CutException e) {
+            fail(e);
+        }
+        assertEquals("a,b,d" + System.lineSeparator() + "1,2,4" + System.lineSeparator(), stdOut.toString());
+    }
+
+    /**
+     * Tests that fields are split on tabs by default, and that selecting fields past the end of a line is allowed.
+     */
+    @Test
+    public void run_FieldOptionWithoutDelimiter_SplitOnTab() {
+        stdIn = new ByteArrayInputStream("a\tb\tc\n1\t2\n".getBytes());
+        try {
+            cutApp.run(new String[]{"-f", "2-5"}, stdIn, stdOut);
+        } catch (CutException e) {
+            fail(e);
+        }
+        assertEquals("b\tc" + System.lineSeparator() + "2" + System.lineSeparator(), stdOut.toString());
+    }
+
+    /**
+     * Tests that lines without the delimiter are printed whole, or left out when -s is given.
+     */
+    @Test
+    public void run_FieldOptionWithUndelimitedLine_PrintLineUnlessSuppressed() {
+        try {
+            cutApp.run(new String[]{"-f", "2", "-d:"}, new ByteArrayInputStream("a:b\nplain\n".getBytes()), stdOut);
+            assertEquals("b" + System.lineSeparator() + "plain" + System.lineSeparator(), stdOut.toString());
+
+            OutputStream suppressedOut = new ByteArrayOutputStream();
+            cutApp.run(new String[]{"-s", "-d:", "-f", "2"}, new ByteArrayInputStream("a:b\nplain\n".getBytes()),
+                    suppressedOut);
+            assertEquals("b" + System.lineSeparator(), suppressedOut.toString());
+        } catch (CutException e) {
+            fail(e);
+        }
+    }
 
+    /**
+     * Tests that a delimiter given outside field mode, or longer than one character, is rejected.
+     */
+    @Test
+    public void run_InvalidDelimiterOption_ThrowException() {
+        Throwable exception = assertThrows(CutException.class,
+                () -> cutApp.run(new String[]{"-c", "1", "-d", ","}, stdIn, stdOut));
+        assertEquals("cut: " + CutArgsParser.ERR_FIELDS_ONLY, exception.getMessage());
+
+        exception = assertThrows(CutException.class,
+                () -> cutApp.run(new String[]{"-f", "1", "-d", ",;"}, stdIn, stdOut));
+        assertEquals("cut: " + CutArgsParser.ERR_DELIM_LENGTH, exception.getMessage());
+    }
 
+    /**
+     * Tests that cutting a file spanning several chunks in parallel gives exactly the sequential output.
+     */
+    @Test
+    public void run_ParallelOptionOnLargeFile_PrintSameAsSequential() {
+        File tempFile = null;
+        try {
+            tempFile = File.createTempFile("large", ".txt", new File(projectRoot));
+            try (BufferedWriter writer = new BufferedWriter(new FileWriter(tempFile))) {
+                for (int i = 0; i < 600_000; i++) {
+                    writer.write(i + ",field" + (i % 7) + ",\u00e9t\u00e9 " + i * 31 + (i % 5 == 0 ? "\r\n" : "\n"));
+                }
+                writer.write("last,line,without,newline");
+            }
+            String path = tempFile.getAbsolutePath();
+            String[][] argSets = {{"-b", "2-6,12"}, {"-c", "1-3,9-14"}, {"-f", "3,1", "-d", ","}};
+            for (String[] argSet : argSets) {
+                ByteArrayOutputStream sequentialOut = new ByteArrayOutputStream();
+                ByteArrayOutputStream parallelOut = new ByteArrayOutputStream();
+                String[] sequentialArgs = Arrays.copyOf(argSet, argSet.length + 1);
+                sequentialArgs[argSet.length] = path;
+                String[] parallelArgs = new String[sequentialArgs.length + 1];
+                parallelArgs[0] = "--parallel";
+                System.arraycopy(sequentialArgs, 0, parallelArgs, 1, sequentialArgs.length);
+
+                cutApp.run(sequentialArgs, stdIn, sequentialOut);
+                new CutApplication().run(parallelArgs, stdIn, parallelOut);
+                assertArrayEquals(sequentialOut.toByteArray(), parallelOut.toByteArray());
+            }
+        } catch (IOException | CutException e) {
+            fail(e);
+        } finally {
+            if (tempFile != null) {
+                tempFile.delete();
+            }
+        }
+    }
 
+    /**
+     * Tests that arguments after the first file are taken as files, even when they look like options.
+     */
+    @Test
+    public void run_FileNamedLikeOptionAfterFile_TreatedAsFile() {
+        File directory = new File(projectRoot);
+        File first = new File(directory, "cut-first.csv");
+        File optionLike = new File(directory, "-data.csv");
+        try {
+            try (FileWriter writer = new FileWriter(first)) {
+                writer.write("a,b\n");
+            }
+            try (FileWriter writer = new FileWriter(optionLike)) {
+                writer.write("c,d\n");
+            }
+            cutApp.run(new String[]{"-d", ",", "-f", "2", first.getName(), optionLike.getName()}, stdIn, stdOut);
+            assertEquals("b" + System.lineSeparator() + "d" + System.lineSeparator(), stdOut.toString());
+        } catch (IOException | CutException e) {
+            fail(e);
+        } finally {
+            first.delete();
+            optionLike.delete();
+        }
+    }
 }
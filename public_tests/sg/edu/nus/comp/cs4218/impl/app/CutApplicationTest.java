@@ -3,6 +3,7 @@ package sg.edu.nus.comp.cs4218.impl.app;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import sg.edu.nus.comp.cs4218.exception.CutException;
+import sg.edu.nus.comp.cs4218.exception.InvalidArgsException;
 
 import java.io.*;
 import java.util.Arrays;
@@ -204,4 +205,49 @@ public class CutApplicationTest {
         assertEquals("cut: Null input stream provided.", exception.getMessage());
     }
 
+    /**
+     * Tests that `compileRanges` sorts the ranges, merges overlapping and adjacent ones, and drops reversed ones.
+     */
+    @Test
+    public void compileRanges_UnsortedOverlappingRanges_ReturnSortedMergedRuns() {
+        try {
+            int[] runs = CutApplication.compileRanges(Arrays.asList(new int[]{6, 8}, new int[]{1, 2},
+                    new int[]{3, 4}, new int[]{7, 10}, new int[]{5, 3}));
+            assertArrayEquals(new int[]{0, 4, 5, 10}, runs);
+        } catch (InvalidArgsException e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Tests that ranges given out of order are cut in position order, with each position output once.
+     */
+    @Test
+    public void run_UnsortedOverlappingRanges_PrintInPositionOrder() {
+        stdIn = new ByteArrayInputStream("1234567890".getBytes());
+        try {
+            cutApp.run(new String[]{"-c", "6-8,1-4,2"}, stdIn, stdOut);
+            assertEquals("1234678" + System.lineSeparator(), stdOut.toString());
+        } catch (CutException e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Tests that a line longer than the read buffer is cut whole, and the lines around it are unaffected.
+     */
+    @Test
+    public void run_LineLongerThanReadBuffer_PrintCorrectOutput() {
+        char[] longLine = new char[200_000];
+        Arrays.fill(longLine, 'x');
+        longLine[longLine.length - 1] = 'y';
+        stdIn = new ByteArrayInputStream(("ab\n" + new String(longLine) + "\r\ncd").getBytes());
+        try {
+            cutApp.run(new String[]{"-b", "2,200000"}, stdIn, stdOut);
+            assertEquals("b" + System.lineSeparator() + "xy" + System.lineSeparator() + "d"
+                    + System.lineSeparator(), stdOut.toString());
+        } catch (CutException e) {
+            fail(e);
+        }
+    }
 }
@@ -2,21 +2,27 @@ package sg.edu.nus.comp.cs4218.impl.app;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import sg.edu.nus.comp.cs4218.Environment;
 import sg.edu.nus.comp.cs4218.exception.AbstractApplicationException;
 import sg.edu.nus.comp.cs4218.exception.LsException;
 import sg.edu.nus.comp.cs4218.impl.app.LsApplication;
+import sg.edu.nus.comp.cs4218.impl.util.DirectoryCache;
 
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
 import java.util.Arrays;
 import java.util.List;
 import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static sg.edu.nus.comp.cs4218.impl.util.ErrorConstants.*;
+import static sg.edu.nus.comp.cs4218.impl.util.StringUtils.STRING_NEWLINE;
 
 /**
  * Test class for the LsApplication.
@@ -213,4 +219,177 @@ public class LsApplicationIT {//NOPMD
             }
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Test method to check the order of a recursive listing of a tree with several sibling directories.
+     * Expects every directory block to follow its parent, with siblings in sorted order.
+     */
+    @Test
+    public void run_RecursiveOptionOnWideTree_ListsBlocksInOrder(@TempDir Path directory) throws Exception {
+        StringBuilder expected = new StringBuilder();
+        String root = directory.toString();
+        String header = relativeToCwd(directory);
+        expected.append(header).append(":\n").append("a\nb\nc").append(STRING_NEWLINE).append(STRING_NEWLINE);
+        for (String name : new String[]{"a", "b", "c"}) {
+            Path child = Files.createDirectory(directory.resolve(name));
+            Files.createFile(child.resolve(name + TXT));
+            Files.createDirectory(child.resolve("sub"));
+            Files.createFile(child.resolve("sub").resolve(FILE1));
+        }
+        for (String name : new String[]{"a", "b", "c"}) {
+            String child = header + File.separator + name;
+            expected.append(child).append(":\n").append(name).append(TXT).append("\nsub")
+                    .append(STRING_NEWLINE).append(STRING_NEWLINE);
+            expected.append(child).append(File.separator).append("sub:\n").append(FILE1)
+                    .append(STRING_NEWLINE).append(STRING_NEWLINE);
+        }
+
+        lsApp.run(new String[]{"-R", root}, null, outputStream);
+        assertEquals(expected.toString().trim() + STRING_NEWLINE, outputStream.toString());
+    }
+
+    /**
+     * Test method to check that a recursive listing skips files given as arguments and lists directories.
+     */
+    @Test
+    public void run_RecursiveOptionWithFileArgument_ListsOnlyDirectories(@TempDir Path directory) throws Exception {
+        Path file = Files.createFile(directory.resolve(FILE1 + TXT));
+        Path child = Files.createDirectory(directory.resolve("dir"));
+        Files.createFile(child.resolve(FILE2));
+
+        lsApp.run(new String[]{"-R", file.toString(), child.toString()}, null, outputStream);
+        assertEquals(relativeToCwd(child) + ":\n" + FILE2 + STRING_NEWLINE, outputStream.toString());
+    }
+
+    private static String relativeToCwd(Path path) {
+        return Paths.get(Environment.currentDirectory).relativize(path).toString();
+    }
+
+    /**
+     * Test method to check the long listing of a directory.
+     * Expects one line per entry with type, permissions, owner, group, aligned size, time and name.
+     */
+    @Test
+    public void run_LongOption_ListsAttributesOfEntries(@TempDir Path directory) throws Exception {
+        Files.write(directory.resolve(FILE1 + TXT), new byte[1234]);
+        Files.createDirectory(directory.resolve(FILE2));
+        Files.createSymbolicLink(directory.resolve("link"), directory.resolve(FILE1 + TXT));
+
+        lsApp.run(new String[]{"-l", directory.toString()}, null, outputStream);
+        String[] lines = outputStream.toString().split(STRING_NEWLINE);
+        assertEquals(4, lines.length);
+        assertEquals(relativeToCwd(directory) + ":", lines[0]);
+        assertTrue(lines[1].matches("-[rwx-]{9} \\S+ +\\S+ +1234 \\w{3} [ \\d]\\d [\\d:]{5} " + FILE1 + TXT), lines[1]);
+        assertTrue(lines[2].matches("d[rwx-]{9} .* " + FILE2), lines[2]);
+        assertTrue(lines[3].matches("l[rwx-]{9} .* link -> .*" + FILE1 + TXT), lines[3]);
+        assertEquals(lines[1].lastIndexOf(FILE1 + TXT), lines[2].lastIndexOf(FILE2));
+    }
+
+    /**
+     * Test method to check the long listing of a large directory, whose attributes are read in parallel.
+     * Expects one line per entry in name order.
+     */
+    @Test
+    public void run_LongOptionOnLargeDirectory_ListsEveryEntryInOrder(@TempDir Path directory) throws Exception {
+        for (int i = 0; i < 1500; i++) {
+            Files.createFile(directory.resolve(String.format("f%04d", i)));
+        }
+
+        lsApp.run(new String[]{"-l", directory.toString()}, null, outputStream);
+        String[] lines = outputStream.toString().split(STRING_NEWLINE);
+        assertEquals(1501, lines.length);
+        for (int i = 0; i < 1500; i++) {
+            assertTrue(lines[i + 1].endsWith(String.format(" f%04d", i)), lines[i + 1]);
+        }
+    }
+
+    /**
+     * Test method to check sorting by extension, with names of the same extension in name order.
+     */
+    @Test
+    public void run_SortByExtensionOption_BreaksTiesByName(@TempDir Path directory) throws Exception {
+        for (String name : new String[]{"b.txt", "c", "a.txt", "d.doc", "a"}) {
+            Files.createFile(directory.resolve(name));
+        }
+
+        lsApp.run(new String[]{"-X", directory.toString()}, null, outputStream);
+        assertEquals(relativeToCwd(directory) + ":\na\nc\nd.doc\na.txt\nb.txt" + STRING_NEWLINE,
+                outputStream.toString());
+    }
+
+    /**
+     * Test method to check sorting by modification time, newest first.
+     */
+    @Test
+    public void run_SortByTimeOption_ListsNewestFirst(@TempDir Path directory) throws Exception {
+        long now = System.currentTimeMillis();
+        String[] names = {"old", "newest", "middle"};
+        long[] ages = {30_000, 0, 10_000};
+        for (int i = 0; i < names.length; i++) {
+            Path file = Files.createFile(directory.resolve(names[i]));
+            Files.setLastModifiedTime(file, FileTime.fromMillis(now - ages[i]));
+        }
+
+        lsApp.run(new String[]{"-t", directory.toString()}, null, outputStream);
+        assertEquals(relativeToCwd(directory) + ":\nnewest\nmiddle\nold" + STRING_NEWLINE, outputStream.toString());
+    }
+
+    /**
+     * Test method to check sorting by size, largest first, with equal sizes in name order.
+     */
+    @Test
+    public void run_SortBySizeOption_ListsLargestFirst(@TempDir Path directory) throws Exception {
+        Files.write(directory.resolve("small"), new byte[10]);
+        Files.write(directory.resolve("large"), new byte[1000]);
+        Files.write(directory.resolve("b"), new byte[100]);
+        Files.write(directory.resolve("a"), new byte[100]);
+
+        lsApp.run(new String[]{"-S", directory.toString()}, null, outputStream);
+        assertEquals(relativeToCwd(directory) + ":\nlarge\na\nb\nsmall" + STRING_NEWLINE, outputStream.toString());
+    }
+
+    /**
+     * Test method to check that an unchanged directory is served from the directory cache, and that a change to
+     * it is picked up on the next listing.
+     */
+    @Test
+    public void run_RepeatedListing_ServedFromCacheUntilDirectoryChanges(@TempDir Path directory) throws Exception {
+        Files.createFile(directory.resolve("a"));
+        FileTime past = FileTime.fromMillis(System.currentTimeMillis() - 60_000);
+        Files.setLastModifiedTime(directory, past);
+        String expected = relativeToCwd(directory) + ":\na" + STRING_NEWLINE;
+
+        lsApp.run(new String[]{directory.toString()}, null, outputStream);
+        long hits = DirectoryCache.getHitCount();
+        ByteArrayOutputStream second = new ByteArrayOutputStream();
+        new LsApplication().run(new String[]{directory.toString()}, null, second);
+        assertEquals(expected, outputStream.toString());
+        assertEquals(expected, second.toString());
+        assertTrue(DirectoryCache.getHitCount() > hits);
+
+        Files.createFile(directory.resolve("b"));
+        ByteArrayOutputStream third = new ByteArrayOutputStream();
+        new LsApplication().run(new String[]{directory.toString()}, null, third);
+        assertEquals(relativeToCwd(directory) + ":\na\nb" + STRING_NEWLINE, third.toString());
+    }
+
+    /**
+     * Test method to check that listings read while walking a tree, and listings of very large directories, are
+     * not kept in the directory cache.
+     */
+    @Test
+    public void run_RecursiveAndLargeListings_NotKeptInCache(@TempDir Path directory) throws Exception {
+        Path large = Files.createDirectories(directory.resolve("tree").resolve("large"));
+        for (int i = 0; i <= DirectoryCache.MAX_LISTING_NAMES; i++) {
+            Files.createFile(large.resolve("f" + i));
+        }
+        int cachedNames = DirectoryCache.getCachedNameCount();
+
+        lsApp.run(new String[]{"-R", directory.toString()}, null, outputStream);
+        assertEquals(cachedNames, DirectoryCache.getCachedNameCount());
+
+        new LsApplication().run(new String[]{large.toString()}, null, new ByteArrayOutputStream());
+        assertEquals(cachedNames, DirectoryCache.getCachedNameCount());
+        assertTrue(outputStream.toString().contains("f" + DirectoryCache.MAX_LISTING_NAMES));
+    }
+}
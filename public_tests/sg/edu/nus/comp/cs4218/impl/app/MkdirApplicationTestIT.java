@@ -590,4 +590,45 @@ public class MkdirApplicationTestIT {
             fail(e);
         }
     }
+
+    /**
+     * Test mkdir -p with many siblings and nested paths sharing their ancestors.
+     * Expected: Should create every requested directory.
+     * Command: `mkdir -p a/b/c0 ... a/b/c1999 a/d/e/f a/b/c0/g`
+     */
+    @Test
+    public void run_pFlagManySharedAncestors_shouldCreateAllDirectories() throws MkdirException {
+        int count = 2000;
+        String[] args = new String[count + 3];
+        args[0] = "-p";
+        for (int i = 0; i < count; i++) {
+            args[i + 1] = "a/b/c" + i;
+        }
+        args[count + 1] = "a/d/e/f";
+        args[count + 2] = "a/b/c0/g";
+
+        mkdirApp.run(args, System.in, System.out);
+
+        for (int i = 0; i < count; i++) {
+            assertTrue(new File(testDir, "a/b/c" + i).isDirectory());
+        }
+        assertTrue(new File(testDir, "a/d/e/f").isDirectory());
+        assertTrue(new File(testDir, "a/b/c0/g").isDirectory());
+    }
+
+    /**
+     * Test mkdir with a path whose parent is created by an earlier argument, and a repeated path.
+     * Expected: Should create both directories and report the repeated path as existing.
+     * Command: `mkdir testParentDir testParentDir/testTargetDir testParentDir`
+     */
+    @Test
+    public void run_parentCreatedByEarlierArg_shouldCreateBothAndReportRepeat() {
+        String[] args = new String[]{"testParentDir", NESTED_TARGET_DIR, "testParentDir"};
+
+        Throwable exception = assertThrows(MkdirException.class,
+                () -> mkdirApp.run(args, System.in, System.out));
+
+        assertEquals(MKDIR_PREFIX + "testParentDir" + ERROR_SEMICOLON + ERR_FILE_EXISTS, exception.getMessage());
+        assertTrue(new File(testDir, NESTED_TARGET_DIR).isDirectory());
+    }
 }
@@ -0,0 +1,202 @@
+package sg.edu.nus.comp.cs4218.impl.app;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import sg.edu.nus.comp.cs4218.exception.MvException;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static sg.edu.nus.comp.cs4218.impl.util.ErrorConstants.ERR_FILE_NOT_FOUND;
+
+/**
+ * Test cases for moves between filesystems and concurrent moves in the MvApplication class.
+ */
+public class MvApplicationIT {
+    private MvApplication mvApp;
+    private ByteArrayOutputStream outputStream;
+
+    /**
+     * Setup method to initialize objects before each test case.
+     */
+    @BeforeEach
+    public void setUp() {
+        mvApp = new MvApplication();
+        outputStream = new ByteArrayOutputStream();
+    }
+
+    /**
+     * Tests that a file large enough to be copied in parallel regions arrives intact, with its modification time,
+     * and that the source is deleted after verification.
+     */
+    @Test
+    public void moveAcrossStores_LargeFileWithVerify_CopiesAndDeletesSource(@TempDir Path directory) throws Exception {
+        byte[] content = new byte[20 * 1024 * 1024 + 123];
+        new Random(42).nextBytes(content);
+        Path source = Files.write(directory.resolve("large.bin"), content);
+        FileTime modified = FileTime.fromMillis(1_600_000_000_000L);
+        Files.setLastModifiedTime(source, modified);
+        Path destination = directory.resolve("moved.bin");
+
+        MvApplication.moveAcrossStores(source, destination, true);
+
+        assertFalse(Files.exists(source));
+        assertArrayEquals(content, Files.readAllBytes(destination));
+        assertEquals(modified, Files.getLastModifiedTime(destination));
+    }
+
+    /**
+     * Tests that a directory tree is copied with its files, links and permissions, and the source tree removed.
+     */
+    @Test
+    public void moveAcrossStores_DirectoryTree_CopiesTreeAndDeletesSource(@TempDir Path directory) throws Exception {
+        Path source = Files.createDirectories(directory.resolve("src").resolve("nested"));
+        Files.writeString(source.resolve("a.txt"), "alpha");
+        Files.writeString(source.getParent().resolve("b.txt"), "beta");
+        Files.createSymbolicLink(source.resolve("link"), Path.of("a.txt"));
+        Files.setPosixFilePermissions(source, PosixFilePermissions.fromString("r-xr-x---"));
+        Path destination = directory.resolve("dest");
+
+        MvApplication.moveAcrossStores(directory.resolve("src"), destination, false);
+
+        assertFalse(Files.exists(directory.resolve("src")));
+        assertEquals("alpha", Files.readString(destination.resolve("nested").resolve("a.txt")));
+        assertEquals("beta", Files.readString(destination.resolve("b.txt")));
+        assertEquals(Path.of("a.txt"), Files.readSymbolicLink(destination.resolve("nested").resolve("link")));
+        assertEquals("r-xr-x---", PosixFilePermissions.toString(
+                Files.getPosixFilePermissions(destination.resolve("nested"))));
+        Files.setPosixFilePermissions(destination.resolve("nested"), PosixFilePermissions.fromString("rwx------"));
+    }
+
+    /**
+     * Tests that several files moved into a folder at once all arrive with their contents.
+     */
+    @Test
+    public void run_MultipleFilesWithVerify_MovesAllFiles(@TempDir Path directory) throws Exception {
+        Path target = Files.createDirectory(directory.resolve("target"));
+        String[] args = new String[6];
+        args[0] = "--verify";
+        for (int i = 1; i < 5; i++) {
+            args[i] = Files.writeString(directory.resolve("f" + i), "content" + i).toString();
+        }
+        args[5] = target.toString();
+
+        mvApp.run(args, System.in, outputStream);
+
+        for (int i = 1; i < 5; i++) {
+            assertFalse(Files.exists(directory.resolve("f" + i)));
+            assertEquals("content" + i, Files.readString(target.resolve("f" + i)));
+        }
+    }
+
+    /**
+     * Tests that sources sharing a file name are moved in argument order, so that the last one ends up in the
+     * folder, as it would with one move at a time.
+     */
+    @Test
+    public void run_SourcesWithSameName_LastSourceWins(@TempDir Path directory) throws Exception {
+        Path target = Files.createDirectory(directory.resolve("target"));
+        Path first = Files.writeString(Files.createDirectory(directory.resolve("a")).resolve("x"), "first");
+        Path second = Files.writeString(Files.createDirectory(directory.resolve("b")).resolve("x"), "second");
+        Path other = Files.writeString(directory.resolve("y"), "other");
+
+        mvApp.run(new String[]{first.toString(), other.toString(), second.toString(), target.toString()},
+                System.in, outputStream);
+
+        assertFalse(Files.exists(first));
+        assertFalse(Files.exists(second));
+        assertEquals("second", Files.readString(target.resolve("x")));
+        assertEquals("other", Files.readString(target.resolve("y")));
+    }
+
+    /**
+     * Tests that without overwriting, only the first of several sources sharing a name is moved, and that files
+     * already in the folder are kept, across a batch large enough to be checked in parallel.
+     */
+    @Test
+    public void run_NoOverwriteLargeBatch_SkipsConflicts(@TempDir Path directory) throws Exception {
+        Path target = Files.createDirectory(directory.resolve("target"));
+        Files.writeString(target.resolve("f0"), "kept");
+        Path first = Files.writeString(Files.createDirectory(directory.resolve("a")).resolve("x"), "first");
+        Path second = Files.writeString(Files.createDirectory(directory.resolve("b")).resolve("x"), "second");
+        int count = 300;
+        String[] args = new String[count + 4];
+        args[0] = "-n";
+        for (int i = 0; i < count; i++) {
+            args[i + 1] = Files.writeString(directory.resolve("f" + i), "content" + i).toString();
+        }
+        args[count + 1] = first.toString();
+        args[count + 2] = second.toString();
+        args[count + 3] = target.toString();
+
+        mvApp.run(args, System.in, outputStream);
+
+        assertEquals("kept", Files.readString(target.resolve("f0")));
+        assertTrue(Files.exists(directory.resolve("f0")));
+        for (int i = 1; i < count; i++) {
+            assertEquals("content" + i, Files.readString(target.resolve("f" + i)));
+        }
+        assertEquals("first", Files.readString(target.resolve("x")));
+        assertTrue(Files.exists(second));
+    }
+
+    /**
+     * Tests that a source inside a directory moved before it is reported as missing, as it would be with one move
+     * at a time, and that the directory keeps its contents.
+     */
+    @Test
+    public void run_SourceInsideEarlierDirectory_ReportsNotFound(@TempDir Path directory) throws Exception {
+        Path target = Files.createDirectory(directory.resolve("target"));
+        Path parent = Files.createDirectory(directory.resolve("d"));
+        Path child = Files.writeString(parent.resolve("x"), "inner");
+
+        MvException exception = assertThrows(MvException.class, () -> mvApp.run(
+                new String[]{parent.toString(), child.toString(), target.toString()}, System.in, outputStream));
+
+        assertEquals("mv: " + child + ": " + ERR_FILE_NOT_FOUND, exception.getMessage());
+        assertEquals("inner", Files.readString(target.resolve("d").resolve("x")));
+        assertFalse(Files.exists(target.resolve("x")));
+    }
+
+    /**
+     * Tests that a source inside a directory moved after it leaves the directory first, so both arrive.
+     */
+    @Test
+    public void run_SourceInsideLaterDirectory_MovesSourceFirst(@TempDir Path directory) throws Exception {
+        Path target = Files.createDirectory(directory.resolve("target"));
+        Path parent = Files.createDirectory(directory.resolve("d"));
+        Path child = Files.writeString(parent.resolve("x"), "inner");
+        Files.writeString(parent.resolve("y"), "kept");
+
+        mvApp.run(new String[]{child.toString(), parent.toString(), target.toString()}, System.in, outputStream);
+
+        assertFalse(Files.exists(parent));
+        assertEquals("inner", Files.readString(target.resolve("x")));
+        assertEquals("kept", Files.readString(target.resolve("d").resolve("y")));
+        assertFalse(Files.exists(target.resolve("d").resolve("x")));
+    }
+
+    /**
+     * Tests that without overwriting, a small batch skips only the names already taken in the folder.
+     */
+    @Test
+    public void run_NoOverwriteSmallBatch_SkipsExistingNames(@TempDir Path directory) throws Exception {
+        Path target = Files.createDirectory(directory.resolve("target"));
+        Files.writeString(target.resolve("a"), "kept");
+        Path first = Files.writeString(directory.resolve("a"), "new");
+        Path second = Files.writeString(directory.resolve("b"), "moved");
+
+        mvApp.run(new String[]{"-n", first.toString(), second.toString(), target.toString()}, System.in,
+                outputStream);
+
+        assertEquals("kept", Files.readString(target.resolve("a")));
+        assertTrue(Files.exists(first));
+        assertEquals("moved", Files.readString(target.resolve("b")));
+    }
+}
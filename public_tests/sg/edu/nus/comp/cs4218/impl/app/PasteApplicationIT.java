@@ -12,6 +12,7 @@ import static sg.edu.nus.comp.cs4218.impl.util.ErrorConstants.*;
 import static sg.edu.nus.comp.cs4218.impl.util.StringUtils.STRING_NEWLINE;
 
 import sg.edu.nus.comp.cs4218.exception.PasteException;
+import sg.edu.nus.comp.cs4218.impl.parser.PasteArgsParser;
 
 // Method to test
 // public void run(String[] args, InputStream stdin, OutputStream stdout) throws AbstractApplicationException
@@ -600,6 +601,20 @@ public class PasteApplicationIT {
         }
     }
 
+    /**
+     * Run with an empty file between other files in serial mode
+     * Expected: The empty file gives an empty row between the rows of the other files.
+     */
+    @Test
+    public void run_EmptyFileBetweenFilesSerial_PrintEmptyRow() {
+        try {
+            pasteApp.run(new String[]{"-s", FILE1, FILE_EMPTY, FILE2, FILE_EMPTY}, inputStream, outputStream);
+            assertEquals(FILE1_SERIAL + "\n" + FILE2_SERIAL + "\n", outputStream.toString());
+        } catch (PasteException e) {
+            fail(e);
+        }
+    }
+
     /**
      * Run with unequal number of lines in serial mode
      * Expected: Print content of files in serial.
@@ -708,4 +723,145 @@ public class PasteApplicationIT {
     }
 
     // Directory testcases not added yet
+
+    /**
+     * Run with read-ahead on multiple files and two "-" from stdin
+     * Expected: Print the same rows as without read-ahead.
+     */
+    @Test
+    public void run_MultipleFilesTwoStdinReadAhead_PrintFilesContentParallel() {
+        try {
+            pasteApp.run(new String[]{"--read-ahead", FILE4, FILE5, "-", "-"}, inputStream, outputStream);
+            assertEquals("AA\t11\tHello world!\tWelcome to CS4218!\nBB\t22\t\t\nCC\t33\t\t\n\t44\t\t\n",
+                    outputStream.toString());
+        } catch (PasteException e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Run with read-ahead on a file and stdin
+     * Expected: Stdin is only read by the calling thread, so no reader is left blocked on it after paste returns.
+     */
+    @Test
+    public void run_FileAndStdinReadAhead_ReadStdinOnCallingThread() {
+        Thread caller = Thread.currentThread();
+        boolean[] isReadElsewhere = new boolean[1];
+        InputStream stdin = new FilterInputStream(inputStream) {
+            @Override
+            public int read(byte[] buffer, int offset, int length) throws IOException {
+                isReadElsewhere[0] |= Thread.currentThread() != caller;
+                return super.read(buffer, offset, length);
+            }
+        };
+        try {
+            pasteApp.run(new String[]{"--read-ahead", FILE4, "-"}, stdin, outputStream);
+            assertEquals("AA\tHello world!\nBB\tWelcome to CS4218!\nCC\t\n", outputStream.toString());
+            assertFalse(isReadElsewhere[0]);
+        } catch (PasteException e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Run with read-ahead on files longer than the read-ahead queue
+     * Expected: Print every row in order.
+     */
+    @Test
+    public void run_LongFilesReadAhead_PrintFilesContentParallel() throws IOException {
+        StringBuilder numbers = new StringBuilder();
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 5000; i++) {
+            numbers.append(i).append(STRING_NEWLINE);
+            expected.append(i).append('\t').append(i).append(STRING_NEWLINE);
+        }
+        Files.write(Paths.get(FILE1), numbers.toString().getBytes(StandardCharsets.UTF_8));
+        try {
+            pasteApp.run(new String[]{FILE1, "--read-ahead", FILE1}, inputStream, outputStream);
+            assertEquals(expected.toString(), outputStream.toString());
+        } catch (PasteException e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Run with a delimiter list on multiple files
+     * Expected: Delimiters are used in turn between columns, starting again on every row.
+     */
+    @Test
+    public void run_MultipleFilesDelimiterList_PrintFilesContentWithCyclingDelimiters() {
+        try {
+            pasteApp.run(new String[]{"-d", ",;", FILE4, FILE5, FILE4}, inputStream, outputStream);
+            assertEquals("AA,11;AA\nBB,22;BB\nCC,33;CC\n,44;\n", outputStream.toString());
+        } catch (PasteException e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Run with an escaped delimiter list in serial mode
+     * Expected: Delimiters are used in turn between lines, starting again for every file.
+     */
+    @Test
+    public void run_MultipleFilesEscapedDelimiterListSerial_PrintFilesContentWithCyclingDelimiters() {
+        try {
+            pasteApp.run(new String[]{"-s", "-d\\t\\0\\\\", FILE1, FILE4}, inputStream, outputStream);
+            assertEquals("1\t23\\4\t5\nAA\tBBCC\n", outputStream.toString());
+        } catch (PasteException e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Run with the delimiter list clustered after -s, as in "-sd,"
+     * Expected: The list is taken from the rest of the argument.
+     */
+    @Test
+    public void run_ClusteredSerialDelimiterFlag_PrintFilesContentWithDelimiter() {
+        try {
+            pasteApp.run(new String[]{"-sd,", FILE4}, inputStream, outputStream);
+            assertEquals("AA,BB,CC\n", outputStream.toString());
+        } catch (PasteException e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Run with -s and -d given as separate arguments, and the list as the next argument
+     * Expected: The list is taken from the argument after -d.
+     */
+    @Test
+    public void run_SeparateSerialAndDelimiterFlags_PrintFilesContentWithDelimiter() {
+        try {
+            pasteApp.run(new String[]{"-s", "-d", ",", FILE4}, inputStream, outputStream);
+            assertEquals("AA,BB,CC\n", outputStream.toString());
+        } catch (PasteException e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Run with d ending a cluster of flags, and the list as the next argument
+     * Expected: The list is taken from the argument after the cluster.
+     */
+    @Test
+    public void run_ClusterEndingWithDelimiterFlag_PrintFilesContentWithDelimiter() {
+        try {
+            pasteApp.run(new String[]{"-sd", ";", FILE4}, inputStream, outputStream);
+            assertEquals("AA;BB;CC\n", outputStream.toString());
+        } catch (PasteException e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Run with a delimiter list ending with an unescaped backslash
+     * Expected: Throws PasteException.
+     */
+    @Test
+    public void run_TrailingBackslashDelimiterList_ThrowsException() {
+        Throwable exception = assertThrows(PasteException.class,
+                () -> pasteApp.run(new String[]{"-d", ",\\", FILE1}, inputStream, outputStream));
+        assertEquals(PASTE_PREFIX + PasteArgsParser.ERR_TRAILING_BACKSLASH, exception.getMessage());
+    }
 }
@@ -0,0 +1,143 @@
+package sg.edu.nus.comp.cs4218.impl.app;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledOnOs;
+import org.junit.jupiter.api.io.TempDir;
+import sg.edu.nus.comp.cs4218.exception.PopdException;
+import sg.edu.nus.comp.cs4218.exception.PushdException;
+import sg.edu.nus.comp.cs4218.testutils.TestEnvironmentUtil;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.condition.OS.WINDOWS;
+import static sg.edu.nus.comp.cs4218.impl.util.StringUtils.STRING_NEWLINE;
+
+/**
+ * Test cases for the pushd, popd and dirs applications, which share the directory stack kept by cd.
+ */
+public class PushdApplicationIT {
+    private ByteArrayOutputStream outputStream;
+
+    /**
+     * Setup method to initialize objects before each test case.
+     */
+    @BeforeEach
+    public void setUp() {
+        outputStream = new ByteArrayOutputStream();
+        CdApplication.clearStack();
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        CdApplication.clearStack();
+        TestEnvironmentUtil.setCurrentDirectory(System.getProperty("user.dir"));
+    }
+
+    /**
+     * Tests that pushd and popd move through directories in stack order, and that dirs lists the current directory
+     * followed by the stack.
+     */
+    @Test
+    public void run_PushdThenPopd_ReturnsInStackOrder(@TempDir Path directory) throws Exception {
+        TestEnvironmentUtil.setCurrentDirectory(directory.toString());
+        Path first = Files.createDirectory(directory.resolve("first"));
+        Path second = Files.createDirectory(directory.resolve("second"));
+
+        new PushdApplication().run(new String[]{"first"}, System.in, outputStream);
+        new PushdApplication().run(new String[]{second.toString()}, System.in, outputStream);
+
+        assertEquals(second.toString(), TestEnvironmentUtil.getCurrentDirectory());
+        assertEquals(second + " " + first + " " + directory, new DirsApplication().listDirectories());
+
+        outputStream.reset();
+        new PopdApplication().run(new String[0], System.in, outputStream);
+        assertEquals(first.toString(), TestEnvironmentUtil.getCurrentDirectory());
+        assertEquals(first + " " + directory + STRING_NEWLINE, outputStream.toString());
+
+        new PopdApplication().run(new String[0], System.in, outputStream);
+        assertEquals(directory.toString(), TestEnvironmentUtil.getCurrentDirectory());
+        PopdException exception = assertThrows(PopdException.class,
+                () -> new PopdApplication().run(new String[0], System.in, outputStream));
+        assertEquals("popd: " + PopdApplication.ERR_STACK_EMPTY, exception.getMessage());
+    }
+
+    /**
+     * Tests that pushd without arguments exchanges the current directory with the top of the stack, and fails when
+     * the stack is empty.
+     */
+    @Test
+    public void run_PushdNoArgs_SwapsWithTop(@TempDir Path directory) throws Exception {
+        TestEnvironmentUtil.setCurrentDirectory(directory.toString());
+        Path other = Files.createDirectory(directory.resolve("other"));
+        assertThrows(PushdException.class, () -> new PushdApplication().run(new String[0], System.in, outputStream));
+
+        new PushdApplication().run(new String[]{"other"}, System.in, outputStream);
+        new PushdApplication().run(new String[0], System.in, outputStream);
+
+        assertEquals(directory.toString(), TestEnvironmentUtil.getCurrentDirectory());
+        assertEquals(directory + " " + other, new DirsApplication().listDirectories());
+    }
+
+    /**
+     * Tests that a failed pushd leaves the directory and the stack unchanged, and that dirs -c clears the stack.
+     */
+    @Test
+    public void run_PushdMissingDirectoryThenClear_StackUnchanged(@TempDir Path directory) throws Exception {
+        TestEnvironmentUtil.setCurrentDirectory(directory.toString());
+        Files.createDirectory(directory.resolve("dir"));
+        new PushdApplication().run(new String[]{"dir"}, System.in, outputStream);
+
+        assertThrows(PushdException.class,
+                () -> new PushdApplication().run(new String[]{"missing"}, System.in, outputStream));
+        assertEquals(directory.resolve("dir") + " " + directory, new DirsApplication().listDirectories());
+
+        new DirsApplication().run(new String[]{"-c"}, System.in, outputStream);
+        assertEquals(directory.resolve("dir").toString(), new DirsApplication().listDirectories());
+    }
+
+    /**
+     * Tests that a failed popd leaves the directory and the stack unchanged.
+     */
+    @Test
+    public void run_PopdMissingDirectory_StackUnchanged(@TempDir Path directory) throws Exception {
+        TestEnvironmentUtil.setCurrentDirectory(directory.toString());
+        Path first = Files.createDirectory(directory.resolve("first"));
+        Path second = Files.createDirectory(directory.resolve("second"));
+        new PushdApplication().run(new String[]{"first"}, System.in, outputStream);
+        new PushdApplication().run(new String[]{second.toString()}, System.in, outputStream);
+        Files.delete(first);
+
+        assertThrows(PopdException.class, () -> new PopdApplication().run(new String[0], System.in, outputStream));
+
+        assertEquals(second.toString(), TestEnvironmentUtil.getCurrentDirectory());
+        assertEquals(second + " " + first + " " + directory, new DirsApplication().listDirectories());
+    }
+
+    /**
+     * Tests that a directory entered before is checked again when revisited, so that removing execute permission
+     * from its parent is noticed.
+     */
+    @Test
+    @DisabledOnOs(WINDOWS)
+    public void run_PushdAfterParentPermissionChange_ThrowsException(@TempDir Path directory) throws Exception {
+        TestEnvironmentUtil.setCurrentDirectory(directory.toString());
+        Path parent = Files.createDirectory(directory.resolve("parent"));
+        Path child = Files.createDirectory(parent.resolve("child"));
+        new PushdApplication().run(new String[]{child.toString()}, System.in, outputStream);
+        new PopdApplication().run(new String[0], System.in, outputStream);
+
+        parent.toFile().setExecutable(false);
+        try {
+            assertThrows(PushdException.class,
+                    () -> new PushdApplication().run(new String[]{child.toString()}, System.in, outputStream));
+            assertEquals(directory.toString(), TestEnvironmentUtil.getCurrentDirectory());
+        } finally {
+            parent.toFile().setExecutable(true);
+        }
+    }
+}
@@ -2,6 +2,7 @@ package sg.edu.nus.comp.cs4218.impl.app;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import sg.edu.nus.comp.cs4218.exception.RmException;
 
 import java.io.ByteArrayOutputStream;
@@ -12,6 +13,7 @@ import java.nio.file.Path;
 import static org.junit.jupiter.api.Assertions.*;
 import static sg.edu.nus.comp.cs4218.impl.util.ErrorConstants.ERR_FILE_NOT_FOUND;
 import static sg.edu.nus.comp.cs4218.impl.util.ErrorConstants.ERR_NULL_ARGS;
+import static sg.edu.nus.comp.cs4218.impl.util.StringUtils.STRING_NEWLINE;
 
 /**
  * Test cases for the RmApplication class.
@@ -228,4 +230,91 @@ public class RmApplicationIT {//NOPMD
         // Assert that the expected exception is thrown
         assertEquals("rm: nonexistent1.txt: " + ERR_FILE_NOT_FOUND, exception.getMessage());
     }
+
+    /**
+     * Tests that a recursive removal deletes a wide tree, including a directory holding more files than one
+     * deletion batch, and reports the number of entries in verbose mode.
+     */
+    @Test
+    public void run_RecursiveVerboseOnLargeTree_DeletesTreeAndReportsCount(@TempDir Path directory) throws Exception {
+        Path root = Files.createDirectory(directory.resolve("build"));
+        for (int i = 0; i < 8; i++) {
+            Path sub = Files.createDirectories(root.resolve("sub" + i).resolve("nested"));
+            Files.createFile(sub.resolve("file"));
+        }
+        Path large = Files.createDirectory(root.resolve("large"));
+        for (int i = 0; i < 2500; i++) {
+            Files.createFile(large.resolve("f" + i));
+        }
+
+        rmApp.run(new String[]{"-rv", root.toString()}, null, outputStream);
+
+        assertFalse(Files.exists(root));
+        assertEquals(String.format(RmApplication.MSG_REMOVED_TREE, root, 8 * 3 + 1 + 2500) + STRING_NEWLINE,
+                outputStream.toString());
+    }
+
+    /**
+     * Tests that a symbolic link to a directory is removed without removing the contents of its target.
+     */
+    @Test
+    public void run_RecursiveOnLinkToDirectory_KeepsTarget(@TempDir Path directory) throws Exception {
+        Path target = Files.createDirectory(directory.resolve("target"));
+        Path file = Files.createFile(target.resolve("kept"));
+        Path tree = Files.createDirectory(directory.resolve("tree"));
+        Files.createSymbolicLink(tree.resolve("link"), target);
+
+        rmApp.run(new String[]{"-r", tree.toString()}, null, outputStream);
+
+        assertFalse(Files.exists(tree));
+        assertTrue(Files.exists(file));
+    }
+
+    /**
+     * Tests that missing files are ignored in force mode while the other arguments are removed.
+     */
+    @Test
+    public void run_ForceWithMissingFile_RemovesExistingFiles(@TempDir Path directory) throws Exception {
+        Path file = Files.createFile(directory.resolve("present"));
+
+        rmApp.run(new String[]{"-f", directory.resolve("missing").toString(), file.toString()}, null, outputStream);
+
+        assertFalse(Files.exists(file));
+    }
+
+    /**
+     * Tests that an asynchronous removal renames the directory away at once and that its contents are deleted by
+     * the reaper, leaving no trash directory behind.
+     */
+    @Test
+    public void run_AsyncRecursive_RenamesThenReapsDirectory(@TempDir Path directory) throws Exception {
+        Path tree = Files.createDirectories(directory.resolve("tree").resolve("nested"));
+        Files.createFile(tree.resolve("file"));
+
+        rmApp.run(new String[]{"-r", "--async", directory.resolve("tree").toString()}, null, outputStream);
+        assertFalse(Files.exists(directory.resolve("tree")));
+
+        RmApplication.awaitReaps();
+        assertEquals(0, RmApplication.getPendingReaps());
+        assertFalse(Files.exists(directory.resolve(RmApplication.TRASH_DIR)));
+    }
+
+    /**
+     * Tests that an entry left in the trash directory by a process that is no longer running is deleted by the
+     * next asynchronous removal in the same directory.
+     */
+    @Test
+    public void run_AsyncWithLeftoverTrash_ReapsLeftover(@TempDir Path directory) throws Exception {
+        Process exited = new ProcessBuilder("true").start();
+        exited.waitFor();
+        Path leftover = Files.createDirectories(directory.resolve(RmApplication.TRASH_DIR)
+                .resolve("old.tree." + exited.pid() + ".1").resolve("nested"));
+        Files.createFile(leftover.resolve("file"));
+        Files.createDirectory(directory.resolve("tree"));
+
+        rmApp.run(new String[]{"-r", "--async", directory.resolve("tree").toString()}, null, outputStream);
+
+        RmApplication.awaitReaps();
+        assertFalse(Files.exists(directory.resolve(RmApplication.TRASH_DIR)));
+    }
 }
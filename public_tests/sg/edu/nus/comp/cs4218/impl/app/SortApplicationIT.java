@@ -584,6 +584,36 @@ public class SortApplicationIT { //NOPMD
         }
     }
 
+    /**
+     * This tests if only the first N sorted lines are printed when the "--top N" option is supplied.
+     */
+    @Test
+    public void run_sortFileWithTopOption_ShouldPrintFirstLines() throws SortException {
+        String[] args = new String[]{"-n", "--top", "3", numbersFile.toFile().getPath()};
+        sortApp.run(args, System.in, stdout);
+        assertEquals(generateExpectedOutput("-5", "-1", "0"), stdout.toString());
+    }
+
+    /**
+     * This tests if the "-N" shorthand combined with "-r" prints the last N sorted lines in reverse order.
+     */
+    @Test
+    public void run_sortStdinWithNumericShorthandAndReverse_ShouldPrintLastLines() throws SortException {
+        InputStream stdin = new ByteArrayInputStream(NUMBERS_CONTENT.getBytes());
+        sortApp.run(new String[]{"-nr", "-2"}, stdin, stdout);
+        assertEquals(generateExpectedOutput("10", "6"), stdout.toString());
+    }
+
+    /**
+     * This tests for a SortException thrown when the "--top" option is given a non-numeric value.
+     */
+    @Test
+    public void run_topOptionWithInvalidCount_ShouldThrowSortException() {
+        Throwable result = assertThrows(SortException.class, () ->
+                sortApp.run(new String[]{"--top", "abc"}, System.in, stdout));
+        assertEquals(SORT_PREFIX + "invalid number of lines: abc", result.getMessage());
+    }
+
     /**
      * Deletes all files and directories in the given path.
      *
@@ -448,6 +448,72 @@ public class SortApplicationTest {
         assertEquals(expectedOutput, numbersContent);
     }
 
+    /**
+     * This tests if the integer fast path orders negative numbers, zero-padded numbers and positive numbers
+     * exactly like the general comparators do.
+     */
+    @Test
+    public void sortList_integerLinesWithLeadingZeros_ShouldMatchComparatorOrder() {
+        List<String> input = new ArrayList<>(List.of("10", "-05", "007", "0", "-100", "01", "3", "-0", "-7",
+                "-005", "100", "000", "-3", "10"));
+        List<String> expected = new ArrayList<>(input);
+        expected.sort(sortApp.lineComparator(true, false));
+
+        sortApp.sortList(true, false, false, input);
+        assertEquals(expected, input);
+    }
+
+    /**
+     * This tests if the integer fast path matches the general comparators on random integers of mixed widths.
+     */
+    @Test
+    public void sortIntegerLines_randomIntegers_ShouldMatchComparatorOrder() {
+        Random random = new Random(4218);
+        List<String> input = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            long value = random.nextLong() >> random.nextInt(Long.SIZE);
+            String line = Long.toString(Math.abs(value % 1_000_000_000_000_000_000L));
+            if (random.nextInt(10) == 0) {
+                line = "0" + line;
+            }
+            input.add(random.nextBoolean() ? "-" + line : line);
+        }
+        List<String> expected = new ArrayList<>(input);
+        expected.sort(sortApp.lineComparator(true, false));
+
+        assertTrue(sortApp.sortIntegerLines(input));
+        assertEquals(expected, input);
+    }
+
+    /**
+     * This tests if the integer fast path leaves the input untouched when a line is not a plain integer or is too
+     * long to fit in a long.
+     */
+    @Test
+    public void sortIntegerLines_nonConformingLine_ShouldFallBack() {
+        List<String> withText = new ArrayList<>(List.of("3", "1", "1A", "2"));
+        List<String> withHugeNumber = new ArrayList<>(List.of("3", "1", "12345678901234567890", "2"));
+        List<String> withEmptyLine = new ArrayList<>(List.of("3", "", "2"));
+
+        assertFalse(sortApp.sortIntegerLines(withText));
+        assertFalse(sortApp.sortIntegerLines(withHugeNumber));
+        assertFalse(sortApp.sortIntegerLines(withEmptyLine));
+        assertEquals(List.of("3", "1", "1A", "2"), withText);
+    }
+
+    /**
+     * This tests if radixSort sorts values across the full range of long, including both extremes.
+     */
+    @Test
+    public void radixSort_fullRangeValues_ShouldSortAscending() {
+        long[] values = {5, Long.MAX_VALUE, -1, 0, Long.MIN_VALUE, 256, -256, 42};
+        long[] expected = values.clone();
+        Arrays.sort(expected);
+
+        SortApplication.radixSort(values, values.length);
+        assertArrayEquals(expected, values);
+    }
+
     // sortFromFiles, sortFromStdin, sortFilesAndStdin's checking and sorting mechanisms are done by the above
     // functions under test. Hence, the tests for these three functions does not focus on those functionalities,
     // but serves to test if the output from sortList is refactored to be separated by newlines, and ends with
@@ -500,6 +566,48 @@ public class SortApplicationTest {
         }
     }
 
+    /**
+     * This tests if sortTopLines returns the same leading lines as a full sort for every combination of flags.
+     */
+    @Test
+    public void sortTopLines_allFlagCombinations_ShouldMatchFullSortPrefix() throws SortException {
+        for (int mask = 0; mask < 8; mask++) {
+            boolean isNumber = (mask & 1) != 0;
+            boolean isReverse = (mask & 2) != 0;
+            boolean isCase = (mask & 4) != 0;
+            List<String> fullSort = new ArrayList<>(List.of(MIXED_CONTENT.split(STRING_NEWLINE)));
+            sortApp.sortList(isNumber, isReverse, isCase, fullSort);
+            for (int topCount = 0; topCount <= fullSort.size() + 1; topCount++) {
+                InputStream stdin = new ByteArrayInputStream(MIXED_CONTENT.getBytes());
+                String output = sortApp.sortTopLines(isNumber, isReverse, isCase, topCount, stdin, STRING_STDIN_DASH);
+                String expected = String.join(STRING_NEWLINE,
+                        fullSort.subList(0, Math.min(topCount, fullSort.size())));
+                assertEquals(expected, output);
+            }
+        }
+    }
+
+    /**
+     * This tests if sortTopLines merges files and stdin before selecting the top lines.
+     */
+    @Test
+    public void sortTopLines_fileAndStdin_ShouldSelectAcrossAllInputs() throws SortException {
+        InputStream stdin = new ByteArrayInputStream(generateExpectedOutput("-7", "3").getBytes());
+        String output = sortApp.sortTopLines(true, false, false, 3, stdin,
+                numbersFile.toFile().getPath(), STRING_STDIN_DASH);
+        assertEquals(String.join(STRING_NEWLINE, "-7", "-5", "-1"), output);
+    }
+
+    /**
+     * This tests for a SortException thrown when sortTopLines is given a file that does not exist.
+     */
+    @Test
+    public void sortTopLines_nonExistentFile_ShouldThrowSortException() {
+        Throwable result = assertThrows(SortException.class, () ->
+                sortApp.sortTopLines(false, false, false, 1, System.in, "nonExistentFile.txt"));
+        assertEquals(SORT_PREFIX + ERR_FILE_NOT_FOUND, result.getMessage());
+    }
+
     /**
      * Deletes all files and directories in the given path.
      *
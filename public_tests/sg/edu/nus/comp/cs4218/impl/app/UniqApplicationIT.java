@@ -5,9 +5,11 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import sg.edu.nus.comp.cs4218.exception.UniqException;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -20,6 +22,7 @@ import static sg.edu.nus.comp.cs4218.impl.helper.TestHelper.*;
 import static sg.edu.nus.comp.cs4218.impl.parser.ArgsParser.ILLEGAL_FLAG_MSG;
 import static sg.edu.nus.comp.cs4218.impl.util.ErrorConstants.*;
 import static sg.edu.nus.comp.cs4218.impl.util.StringUtils.CHAR_FLAG_PREFIX;
+import static sg.edu.nus.comp.cs4218.impl.util.StringUtils.STRING_NEWLINE;
 import static sg.edu.nus.comp.cs4218.impl.util.StringUtils.fileSeparator;
 
 /**
@@ -211,4 +214,127 @@ public class UniqApplicationIT { //NOPMD
             fail();
         }
     }
+
+    /**
+     * This tests if uniq counts a large number of adjacent duplicates without holding them in memory.
+     */
+    @Test
+    public void run_uniqWithCFlagOnLargeStdin_ShouldGiveCorrectCounts() throws UniqException {
+        StringBuilder input = new StringBuilder();
+        for (int i = 0; i < 3; i++) {
+            input.append("line ").append(i).append('\n').append("dup\n".repeat(200_000));
+        }
+        InputStream stdin = new ByteArrayInputStream(input.toString().getBytes());
+        uniqApp.run(new String[]{"-c"}, stdin, stdout);
+        String output = generateExpectedOutput(new String[]{"   1 line 0", "   200000 dup", "   1 line 1",
+                "   200000 dup", "   1 line 2", "   200000 dup"});
+        assertEquals(output, stdout.toString());
+    }
+
+    /**
+     * This tests if uniq writes all repeated lines to the output file and nothing to stdout.
+     */
+    @Test
+    public void run_uniqWithDFlagToOutputFile_ShouldWriteOutputFile() throws Exception {
+        Path outputFile = testDir.toPath().resolve("output.txt");
+        String[] args = new String[]{"-D", text1File.toFile().getPath(), outputFile.toString()};
+        uniqApp.run(args, System.in, stdout);
+        String output = generateExpectedOutput(new String[]{"Hello World", "Hello World", "Alice", "Alice"});
+        assertEquals(output, Files.readString(outputFile));
+        assertEquals("", stdout.toString());
+    }
+
+    /**
+     * This tests if uniq compares lines without regard to case with the "-i" flag, printing the first line of each
+     * group.
+     */
+    @Test
+    public void run_uniqWithIFlag_ShouldIgnoreCase() throws UniqException {
+        InputStream stdin = new ByteArrayInputStream("Alice\nALICE\naLiCe\nBob\nbob\n".getBytes());
+        uniqApp.run(new String[]{"-ci"}, stdin, stdout);
+        assertEquals(generateExpectedOutput(new String[]{"   3 Alice", "   2 Bob"}), stdout.toString());
+    }
+
+    /**
+     * This tests if uniq skips leading fields and bytes before comparing with the "-f" and "-s" options.
+     */
+    @Test
+    public void run_uniqWithSkipFieldsAndChars_ShouldCompareRemainder() throws UniqException {
+        String input = "10:01 host1 xdisk full\n10:02  host2 ydisk full\n10:03 host1 zmemory low\n";
+        InputStream stdin = new ByteArrayInputStream(input.getBytes());
+        uniqApp.run(new String[]{"-f", "2", "-s2", "-c"}, stdin, stdout);
+        assertEquals(generateExpectedOutput(new String[]{"   2 10:01 host1 xdisk full", "   1 10:03 host1 zmemory low"}),
+                stdout.toString());
+    }
+
+    /**
+     * This tests if uniq prints only lines that are not repeated with the "-u" flag.
+     */
+    @Test
+    public void run_uniqWithUFlag_ShouldGiveUniqueLines() throws UniqException {
+        String[] args = new String[]{"-u", text1File.toFile().getPath()};
+        uniqApp.run(args, System.in, stdout);
+        assertEquals(generateExpectedOutput(new String[]{"Bob", "Alice", "Bob"}), stdout.toString());
+    }
+
+    /**
+     * This tests if uniq prints every line of a case-insensitive group with the "-D" flag.
+     */
+    @Test
+    public void run_uniqWithIAndDFlags_ShouldPrintEachLineOfGroup() throws UniqException {
+        InputStream stdin = new ByteArrayInputStream("a\nA\nb\n".getBytes());
+        uniqApp.run(new String[]{"-i", "-D"}, stdin, stdout);
+        assertEquals(generateExpectedOutput(new String[]{"a", "A"}), stdout.toString());
+    }
+
+    /**
+     * This tests for a UniqException thrown when the number of fields to skip is invalid.
+     */
+    @Test
+    public void run_invalidSkipFields_ShouldThrowUniqException() {
+        Throwable result = assertThrows(UniqException.class, () ->
+                uniqApp.run(new String[]{"-f", "x"}, System.in, stdout));
+        assertEquals(UNIQ_PREFIX + "invalid number of fields to skip: x", result.getMessage());
+    }
+
+    /**
+     * This tests if uniq removes duplicates that are not adjacent with the "--global" option, keeping first
+     * occurrences in input order.
+     */
+    @Test
+    public void run_uniqWithGlobal_ShouldKeepFirstOccurrences() throws UniqException {
+        String[] args = new String[]{"--global", text1File.toFile().getPath()};
+        uniqApp.run(args, System.in, stdout);
+        assertEquals(generateExpectedOutput(new String[]{"Hello World", "Alice", "Bob"}), stdout.toString());
+    }
+
+    /**
+     * This tests if uniq counts every occurrence with the "--global" option and the "-c" and "-i" flags.
+     */
+    @Test
+    public void run_uniqWithGlobalAndCAndIFlags_ShouldCountAllOccurrences() throws UniqException {
+        InputStream stdin = new ByteArrayInputStream("b\na\nB\nc\nA\nb\n".getBytes());
+        uniqApp.run(new String[]{"--global", "-ci"}, stdin, stdout);
+        assertEquals(generateExpectedOutput(new String[]{"   3 b", "   2 a", "   1 c"}), stdout.toString());
+    }
+
+    /**
+     * This tests if uniq keeps many distinct lines apart with the "--global" option and prints only repeated
+     * ones with the "-d" flag.
+     */
+    @Test
+    public void run_uniqWithGlobalOnManyDistinctLines_ShouldGiveRepeatedLines() throws UniqException {
+        StringBuilder input = new StringBuilder();
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 100_000; i++) {
+            input.append("line ").append(i).append('\n');
+        }
+        for (int i = 0; i < 100_000; i += 2) {
+            input.append("line ").append(i).append('\n');
+            expected.append("line ").append(i).append(STRING_NEWLINE);
+        }
+        InputStream stdin = new ByteArrayInputStream(input.toString().getBytes());
+        uniqApp.run(new String[]{"--global", "-d"}, stdin, stdout);
+        assertEquals(expected.toString(), stdout.toString());
+    }
 }
@@ -448,6 +448,35 @@ public class WcApplicationIT {
         }
     }
 
+    /**
+     * This tests if the byte counts of multiple files and their total are outputted correctly with only the
+     * "-c" flag supplied.
+     */
+    @Test
+    public void run_MultipleFilesWithCFlag_ShouldReturnBytesAndTotal() throws WcException {
+        String[] args = {"-c", text1File.toFile().getPath(), text2File.toFile().getPath()};
+        wcApp.run(args, System.in, stdout);
+        String output = String.format(NUMBER_FORMAT, 21) + " " + text1File.toFile().getPath() + STRING_NEWLINE +
+                String.format(NUMBER_FORMAT, 246) + " " + text2File.toFile().getPath() + STRING_NEWLINE +
+                String.format(NUMBER_FORMAT, 267) + " total" + STRING_NEWLINE;
+        assertEquals(output, stdout.toString());
+    }
+
+    /**
+     * This tests if the characters and longest line are outputted after the lines and words when the "-m" and
+     * "-L" flags are supplied.
+     */
+    @Test
+    public void run_SingleFileWithLMLFlags_ShouldReturnLinesCharsAndLongestLine() throws WcException {
+        String[] args = {"-lmL", text1File.toFile().getPath()};
+        wcApp.run(args, System.in, stdout);
+        String output = String.format(NUMBER_FORMAT, 1) +
+                String.format(NUMBER_FORMAT, 21) +
+                String.format(NUMBER_FORMAT, 20) +
+                " " + text1File.toFile().getPath() + STRING_NEWLINE;
+        assertEquals(output, stdout.toString());
+    }
+
     /**
      * This tests if multiple files given to wc using stdin would be outputted correctly with the "-c" flag supplied.
      */
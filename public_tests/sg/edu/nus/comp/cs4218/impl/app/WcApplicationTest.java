@@ -6,6 +6,7 @@ import org.junit.jupiter.api.Test;
 import sg.edu.nus.comp.cs4218.exception.WcException;
 
 import java.io.*;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.attribute.PosixFilePermission;
@@ -153,6 +154,76 @@ public class WcApplicationTest {
         }
     }
 
+    /**
+     * This test checks if the getCountReport method treats control separators and tabs as whitespace and bytes of
+     * multi-byte characters as part of a word.
+     */
+    @Test
+    public void getCountReport_controlSeparatorsAndUnicode_shouldReturnCorrectCounts() throws WcException {
+        byte[] input = "caf\u00e9\u001Cna\u00efve\tok\r\n".getBytes(StandardCharsets.UTF_8);
+        long[] output = wcApp.getCountReport(new ByteArrayInputStream(input));
+        assertEquals(1, output[0]); // lines
+        assertEquals(3, output[1]); // words
+        assertEquals(input.length, output[2]); // bytes
+    }
+
+    /**
+     * This test checks if the getCountReport method counts a word spanning two read blocks only once.
+     */
+    @Test
+    public void getCountReport_wordAcrossReadBlocks_shouldCountWordOnce() throws WcException {
+        String longWord = "a".repeat(200_000);
+        InputStream stdin = new ByteArrayInputStream((longWord + " b\n" + longWord).getBytes());
+        long[] output = wcApp.getCountReport(stdin);
+        assertEquals(1, output[0]); // lines
+        assertEquals(3, output[1]); // words
+        assertEquals(400_003, output[2]); // bytes
+    }
+
+    /**
+     * This test checks if counting a memory-mapped file in chunks gives the same counts as a sequential scan,
+     * whatever the chunk boundaries split.
+     */
+    @Test
+    public void getMappedCountReport_variousChunkCounts_shouldMatchSequentialCount() throws Exception {
+        Path file = Files.createTempFile(testDir.toPath(), "mapped", TXT_POSTFIX);
+        Files.write(file, (WC_TEXT3 + "  trailing\tword" + STRING_NEWLINE + WC_TEXT2).getBytes());
+        long[] expected;
+        try (InputStream input = Files.newInputStream(file)) {
+            expected = wcApp.getCountReport(input);
+        }
+
+        for (int chunkCount = 1; chunkCount <= 16; chunkCount++) {
+            assertArrayEquals(expected, wcApp.getMappedCountReport(file, chunkCount));
+        }
+    }
+
+    /**
+     * This test checks if the getCountReport method computes characters and the longest line in the same pass
+     * as the other counters, expanding tabs to the next multiple of eight for the line length.
+     */
+    @Test
+    public void getCountReport_charsAndMaxLineLength_shouldReturnCorrectCounts() throws WcException {
+        InputStream stdin = new ByteArrayInputStream(("ab\tc\n" + WC_TEXT2 + "\n\nxy").getBytes());
+        long[] output = wcApp.getCountReport(stdin, true, true);
+        assertEquals(3, output[0]); // lines
+        assertEquals(7, output[1]); // words
+        assertEquals(29, output[2]); // bytes
+        assertEquals(29, output[3]); // characters
+        assertEquals(20, output[4]); // longest line
+    }
+
+    /**
+     * This test checks if the getSizeReport method reports the byte count of a file from its size.
+     */
+    @Test
+    public void getSizeReport_regularFile_shouldReturnFileSize() throws WcException {
+        long[] output = wcApp.getSizeReport(text1File);
+        assertEquals(0, output[0]); // lines
+        assertEquals(0, output[1]); // words
+        assertEquals(WC_TEXT1.length(), output[2]); // bytes
+    }
+
     /**
      * This test checks if the getCountReport method correctly counts the number of lines, words, and bytes
      * when the input stream contains special characters.
@@ -0,0 +1,13 @@
+package sg.edu.nus.comp.cs4218.app;
+
+import sg.edu.nus.comp.cs4218.Application;
+import sg.edu.nus.comp.cs4218.exception.AbstractApplicationException;
+
+public interface DirsInterface extends Application {
+    /**
+     * Returns the current directory followed by the directories on the directory stack, from the top down.
+     *
+     * @throws Exception
+     */
+    String listDirectories() throws AbstractApplicationException;
+}
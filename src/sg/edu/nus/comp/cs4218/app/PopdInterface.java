@@ -0,0 +1,13 @@
+package sg.edu.nus.comp.cs4218.app;
+
+import sg.edu.nus.comp.cs4218.Application;
+import sg.edu.nus.comp.cs4218.exception.AbstractApplicationException;
+
+public interface PopdInterface extends Application {
+    /**
+     * Remove the directory on top of the directory stack and change to it.
+     *
+     * @throws Exception
+     */
+    void popDirectory() throws AbstractApplicationException;
+}
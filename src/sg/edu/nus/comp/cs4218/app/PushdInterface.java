@@ -0,0 +1,15 @@
+package sg.edu.nus.comp.cs4218.app;
+
+import sg.edu.nus.comp.cs4218.Application;
+import sg.edu.nus.comp.cs4218.exception.AbstractApplicationException;
+
+public interface PushdInterface extends Application {
+    /**
+     * Save the current directory on the directory stack and change to a different directory. Without a path,
+     * exchange the current directory with the directory on top of the stack.
+     *
+     * @param path String of the path to a directory, or null to exchange with the top of the stack
+     * @throws Exception
+     */
+    void pushDirectory(String path) throws AbstractApplicationException;
+}
@@ -4,7 +4,17 @@ public class CdException extends AbstractApplicationException {
 
     private static final long serialVersionUID = -4730922172179294678L;
 
+    private final String reason;
+
     public CdException(String message) {
         super("cd: " + message);
+        this.reason = message;
+    }
+
+    /**
+     * Returns the message without the "cd: " prefix, for builtins that change directory on behalf of cd.
+     */
+    public String getReason() {
+        return reason;
     }
 }
\ No newline at end of file
@@ -0,0 +1,10 @@
+package sg.edu.nus.comp.cs4218.exception;
+
+public class DirsException extends AbstractApplicationException {
+
+    private static final long serialVersionUID = -7740158532874129166L;
+
+    public DirsException(String message) {
+        super("dirs: " + message);
+    }
+}
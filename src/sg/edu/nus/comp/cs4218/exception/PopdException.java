@@ -0,0 +1,10 @@
+package sg.edu.nus.comp.cs4218.exception;
+
+public class PopdException extends AbstractApplicationException {
+
+    private static final long serialVersionUID = 5186223009146713502L;
+
+    public PopdException(String message) {
+        super("popd: " + message);
+    }
+}
@@ -0,0 +1,10 @@
+package sg.edu.nus.comp.cs4218.exception;
+
+public class PushdException extends AbstractApplicationException {
+
+    private static final long serialVersionUID = -3317712519104835441L;
+
+    public PushdException(String message) {
+        super("pushd: " + message);
+    }
+}
@@ -7,12 +7,17 @@ import sg.edu.nus.comp.cs4218.exception.ShellException;
 import sg.edu.nus.comp.cs4218.impl.parser.CatArgsParser;
 import sg.edu.nus.comp.cs4218.impl.util.IOUtils;
 
-import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -23,6 +28,7 @@ import static sg.edu.nus.comp.cs4218.impl.util.StringUtils.STRING_STDIN_DASH;
 
 public class CatApplication implements CatInterface { //NOPMD
     private static final String NUMBER_FORMAT = "%6d";
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
     /**
      * Runs the cat application with the specified arguments.
      *
@@ -42,21 +48,11 @@ public class CatApplication implements CatInterface { //NOPMD
         CatArgsParser catArgsParser = new CatArgsParser();
         try {
             catArgsParser.parse(args);
-            StringBuilder output = new StringBuilder();
-
-            if (catArgsParser.getFileNames().contains(STRING_STDIN_DASH)) {
-                output.append(catFileAndStdin(catArgsParser.isLineNumberSpecified(), stdin, catArgsParser.getFileNames().toArray(new String[0])));
-            } else if (catArgsParser.getFileNames().isEmpty()) {
-                // Read from stdin if no files are specified
-                output.append(catStdin(catArgsParser.isLineNumberSpecified(), stdin));
-            } else {
-                // Read from files
-                output.append(catFiles(catArgsParser.isLineNumberSpecified(), catArgsParser.getFileNames().toArray(new String[0])));
-            }
-            if (!output.toString().isEmpty()) {
-                stdout.write(output.toString().getBytes());
-            }
-
+            String[] fileNames = catArgsParser.getFileNames().isEmpty()
+                    ? new String[]{STRING_STDIN_DASH}
+                    : catArgsParser.getFileNames().toArray(new String[0]);
+            // Files and stdin are copied straight to stdout as they are read
+            catToStream(catArgsParser.isLineNumberSpecified(), stdin, stdout, fileNames);
         } catch (CatException e) {
             throw e;
         } catch (Exception e) {
@@ -81,50 +77,6 @@ public class CatApplication implements CatInterface { //NOPMD
         return numberedLines;
     }
 
-    /**
-     * Adds line number prefix to the given lines.
-     *
-     * @param lines List of Strings of lines
-     */
-    protected String addLineNumbersToString(String lines) {
-        if (lines.isEmpty()) {
-            return "";
-        }
-
-        StringBuilder numberedLines = new StringBuilder();
-        int lineNumber = 1;
-
-        // Count the number of newline characters at the end of lines
-        int numNewLinesAtEnd = 0;
-        for (int i = lines.length() - 1; i >= 0; i--) {
-            if (lines.charAt(i) == '\n') {
-                numNewLinesAtEnd++;
-            } else {
-                break;
-            }
-        }
-
-        Boolean endsWithNewLine = lines.endsWith(STRING_NEWLINE);
-        String[] splitByNewLine = lines.split(STRING_NEWLINE);
-
-        for (String line : splitByNewLine) {
-            numberedLines.append(String.format(NUMBER_FORMAT, lineNumber)).append('\t').append(line).append(STRING_NEWLINE);
-            lineNumber++;
-        }
-
-        while (numNewLinesAtEnd > 1) {
-            numberedLines.append(String.format(NUMBER_FORMAT, lineNumber)).append('\t').append(STRING_NEWLINE);
-            lineNumber++;
-            numNewLinesAtEnd--;
-        }
-
-        if (!endsWithNewLine) {
-            numberedLines.deleteCharAt(numberedLines.length() - 1);
-        }
-
-        return numberedLines.toString();
-    }
-
     /**
      * Returns string containing the concatenated lines of the fileNames provided
      *
@@ -137,26 +89,12 @@ public class CatApplication implements CatInterface { //NOPMD
         if (fileNames == null) {
             throw new CatException(ERR_NULL_ARGS);
         }
-        StringBuilder outputBuilder = new StringBuilder();
-
         for (String file : fileNames) {
             validateFilePath(file);
-            try (InputStream input = IOUtils.openInputStream(file);
-                BufferedReader reader = new BufferedReader(new InputStreamReader(input))) {
-                String fileContent = "";
-                int nextChar;
-                while ((nextChar = reader.read()) != -1) {
-                    fileContent += (char) nextChar;
-                }
-                if (isLnumSpecified) {
-                    fileContent = addLineNumbersToString(fileContent);
-                }
-                outputBuilder.append(fileContent);
-            } catch (IOException | ShellException e) {
-                e.printStackTrace();
-            }
         }
-        return outputBuilder.toString();
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        catToStream(isLnumSpecified, null, output, fileNames);
+        return output.toString();
     }
 
     protected void validateFilePath(String file) throws CatException {
@@ -184,18 +122,9 @@ public class CatApplication implements CatInterface { //NOPMD
         if (stdin == null) {
             throw new CatException(ERR_NULL_STREAMS);
         }
-        List<String> lines = null;
-        try {
-            lines = IOUtils.getLinesFromInputStream(stdin);
-            if (isLnumSpecified) {
-                lines = addLineNumbers(lines);
-            }
-        } catch (Exception e) {
-            CatException catException = new CatException(ERR_IO_EXCEPTION);
-            catException.initCause(e);
-            throw catException;
-        }
-        return catOutput(lines);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        catToStream(isLnumSpecified, stdin, output, STRING_STDIN_DASH);
+        return output.toString();
     }
 
     /**
@@ -216,45 +145,99 @@ public class CatApplication implements CatInterface { //NOPMD
             throw new CatException(ERR_NULL_STREAMS);
         }
 
-        List<String> lines = null;
-        StringBuilder outputBuilder = new StringBuilder();
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        catToStream(isLnumSpecified, stdin, output, fileNames);
+        return output.toString();
+    }
 
+    /**
+     * Copies the given files and stdin to the output stream in order, without holding more than one buffer of
+     * input at a time. Every input is validated before anything is written. Files are copied byte for byte,
+     * while the last line of stdin is always terminated with a newline.
+     *
+     * @param isLnumSpecified Boolean option to include line numbers in the output
+     * @param stdin           InputStream read for every "-" in fileNames, or null if "-" names a file
+     * @param stdout          OutputStream to write the output to
+     * @param fileNames       Array of String of file names
+     * @throws CatException If a file does not exist or is unreadable, or the output cannot be written.
+     */
+    protected void catToStream(Boolean isLnumSpecified, InputStream stdin, OutputStream stdout,//NOPMD
+                               String... fileNames) throws CatException {
         for (String file : fileNames) {
-            if (file.equals(STRING_STDIN_DASH)) {
-                try {
-                    lines = IOUtils.getLinesFromInputStream(stdin);
-                    if (isLnumSpecified) {
-                        String lineToString = catOutput(lines);
-                        outputBuilder.append(addLineNumbersToString(lineToString));
-                    }
-                    else {
-                        outputBuilder.append(catOutput(lines));
-                    }
-                } catch (Exception e) {
-                    CatException catException = new CatException(ERR_IO_EXCEPTION);
-                    catException.initCause(e);
-                    throw catException;
-                }
-            } else {
+            if (!isStdin(file, stdin)) {
                 validateFilePath(file);
+            }
+        }
 
-                try (InputStream input = IOUtils.openInputStream(file);
-                     BufferedReader reader = new BufferedReader(new InputStreamReader(input))) {
-                    String fileContent = "";
-                    int nextChar;
-                    while ((nextChar = reader.read()) != -1) {
-                        fileContent += (char) nextChar;
-                    }
-                    if (isLnumSpecified) {
-                        fileContent = addLineNumbersToString(fileContent);
+        byte[] buffer = new byte[COPY_BUFFER_SIZE];
+        // A single numbering stage is shared so that the count carries on across files and stdin
+        OutputStream target = isLnumSpecified ? new LineNumberingStream(stdout) : stdout;
+        try {
+            for (String file : fileNames) {
+                if (isStdin(file, stdin)) {
+                    copyStdin(stdin, target, buffer);
+                } else if (isLnumSpecified) {
+                    try (InputStream input = IOUtils.openInputStream(file)) {
+                        copyStream(input, target, buffer);
                     }
-                    outputBuilder.append(fileContent);
-                } catch (IOException | ShellException e) {
-                    e.printStackTrace();
+                } else {
+                    copyFile(IOUtils.resolveFilePath(file), stdout, buffer);
+                }
+            }
+            stdout.flush();
+        } catch (IOException | ShellException e) {
+            CatException catException = new CatException(ERR_IO_EXCEPTION);
+            catException.initCause(e);
+            throw catException;
+        }
+    }
+
+    private boolean isStdin(String file, InputStream stdin) {
+        return stdin != null && file.equals(STRING_STDIN_DASH);
+    }
+
+    private void copyStdin(InputStream stdin, OutputStream target, byte[] buffer) throws IOException {
+        int lastByte = copyStream(stdin, target, buffer);
+        if (lastByte != -1 && lastByte != '\n') {
+            target.write('\n');
+        }
+    }
+
+    /**
+     * Copies the input to the target in bulk and returns the last byte copied, or -1 if the input was empty.
+     */
+    private int copyStream(InputStream input, OutputStream target, byte[] buffer) throws IOException {
+        int lastByte = -1;
+        int read;
+        while ((read = input.read(buffer)) != -1) {
+            if (read > 0) {
+                target.write(buffer, 0, read);
+                lastByte = buffer[read - 1];
+            }
+        }
+        return lastByte;
+    }
+
+    /**
+     * Copies a file to the target. When the target is itself a file, the bytes are moved between the two file
+     * channels by the operating system without passing through the Java heap.
+     */
+    private void copyFile(Path path, OutputStream target, byte[] buffer) throws IOException {
+        if (target instanceof FileOutputStream) {
+            target.flush();
+            FileChannel output = ((FileOutputStream) target).getChannel();
+            try (FileChannel input = FileChannel.open(path, StandardOpenOption.READ)) {
+                long position = 0;
+                long size = input.size();
+                while (position < size) {
+                    position += input.transferTo(position, size - position, output);
                 }
             }
+            return;
+        }
+        try (InputStream input = Files.newInputStream(path)) {
+            copyStream(input, target, buffer);
         }
-        return outputBuilder.toString();
     }
 
     /**
@@ -271,4 +254,62 @@ public class CatApplication implements CatInterface { //NOPMD
         return output.toString();
     }
 
-}
\ No newline at end of file
+    /**
+     * Output stage that prefixes every line written through it with its line number, right-aligned to a width of
+     * six and followed by a tab. Bytes are passed through unchanged, so the content is never decoded into a String.
+     * The prefix is formatted by hand into a reusable buffer, so numbering a line allocates nothing.
+     */
+    private static final class LineNumberingStream extends FilterOutputStream {
+        private static final int MIN_WIDTH = 6;
+        private static final int MAX_DIGITS = 19;
+
+        private final byte[] prefix = new byte[MAX_DIGITS + 1];
+        private long lineNumber;
+        private boolean isAtLineStart = true;
+
+        private LineNumberingStream(OutputStream out) {
+            super(out);
+            prefix[MAX_DIGITS] = '\t';
+        }
+
+        @Override
+        public void write(int value) throws IOException {
+            if (isAtLineStart) {
+                writeLineNumber();
+            }
+            out.write(value);
+            isAtLineStart = value == '\n';
+        }
+
+        @Override
+        public void write(byte[] data, int offset, int length) throws IOException {
+            int lineStart = offset;
+            int end = offset + length;
+            for (int i = offset; i < end; i++) {
+                if (isAtLineStart) {
+                    out.write(data, lineStart, i - lineStart);
+                    lineStart = i;
+                    writeLineNumber();
+                    isAtLineStart = false;
+                }
+                if (data[i] == '\n') {
+                    isAtLineStart = true;
+                }
+            }
+            out.write(data, lineStart, end - lineStart);
+        }
+
+        private void writeLineNumber() throws IOException {
+            long value = ++lineNumber;
+            int start = MAX_DIGITS;
+            do {
+                prefix[--start] = (byte) ('0' + value % 10);
+                value /= 10;
+            } while (value != 0);
+            while (start > MAX_DIGITS - MIN_WIDTH) {
+                prefix[--start] = ' ';
+            }
+            out.write(prefix, start, prefix.length - start);
+        }
+    }
+}
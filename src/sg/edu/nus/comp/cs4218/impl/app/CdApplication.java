@@ -3,19 +3,26 @@ package sg.edu.nus.comp.cs4218.impl.app;
 import sg.edu.nus.comp.cs4218.Environment;
 import sg.edu.nus.comp.cs4218.app.CdInterface;
 import sg.edu.nus.comp.cs4218.exception.CdException;
+import sg.edu.nus.comp.cs4218.impl.util.DirectoryCache;
 import sg.edu.nus.comp.cs4218.impl.util.StringUtils;
 
 import java.io.File;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
 
 import static sg.edu.nus.comp.cs4218.impl.util.ErrorConstants.*;
 
 public class CdApplication implements CdInterface {
     private static final String ERROR_SEMICOLON = ": ";
+    private static final Deque<String> DIRECTORY_STACK = new ArrayDeque<>();
 
 
     /**
@@ -29,14 +36,62 @@ public class CdApplication implements CdInterface {
         if (path == null) {
             throw new CdException(ERR_NULL_ARGS);
         }
-        String normalizedPath = getNormalizedAbsolutePath(path);
-        if (!Files.exists(Path.of(normalizedPath))) {
-            throw new CdException(path + ERROR_SEMICOLON + ERR_FILE_NOT_FOUND);
+        enterDirectory(getNormalizedAbsolutePath(path), path);
+    }
+
+    /**
+     * Changes working directory to a normalized absolute path. Every level of the path is checked through the
+     * shared directory cache, which revalidates each entry with a single stat, so repeated visits cost one stat
+     * per level and a change to the permissions of any ancestor is seen at once.
+     *
+     * @param normalizedPath Normalized absolute path of the directory.
+     * @param originalPath   Original path argument passed into shell, used for error message.
+     * @throws CdException If the directory does not exist or cannot be entered.
+     */
+    protected void enterDirectory(String normalizedPath, String originalPath) throws CdException {
+        Path target = Path.of(normalizedPath);
+        if (!Files.exists(target)) {
+            throw new CdException(originalPath + ERROR_SEMICOLON + ERR_FILE_NOT_FOUND);
         }
-        checkPermissions(Path.of(normalizedPath), path);
+        checkPermissions(target, originalPath);
         Environment.currentDirectory = normalizedPath;
     }
 
+    /**
+     * Pushes a directory onto the directory stack shared by pushd, popd and dirs.
+     */
+    static void pushToStack(String directory) {
+        synchronized (DIRECTORY_STACK) {
+            DIRECTORY_STACK.push(directory);
+        }
+    }
+
+    /**
+     * Removes the directory on top of the directory stack.
+     *
+     * @return The directory, or null if the stack is empty.
+     */
+    static String popFromStack() {
+        synchronized (DIRECTORY_STACK) {
+            return DIRECTORY_STACK.poll();
+        }
+    }
+
+    /**
+     * Returns the directories on the directory stack, from the top down.
+     */
+    static List<String> getStack() {
+        synchronized (DIRECTORY_STACK) {
+            return new ArrayList<>(DIRECTORY_STACK);
+        }
+    }
+
+    static void clearStack() {
+        synchronized (DIRECTORY_STACK) {
+            DIRECTORY_STACK.clear();
+        }
+    }
+
     /**
      * Runs the cd application with the specified arguments.
      * Assumption: The application must take in one arg. (cd without args is not supported)
@@ -90,7 +145,8 @@ public class CdApplication implements CdInterface {
 
     /**
      * Checks if the given path has execute permissions in every level, and if the
-     * separate parts of the path are all directories.
+     * separate parts of the path are all directories. Each level is looked up in the
+     * shared directory cache.
      *
      * @param path         Absolute path to check
      * @param originalPath Original path argument passed into shell, used for error message.
@@ -104,10 +160,17 @@ public class CdApplication implements CdInterface {
         Path currPath = Paths.get("/");
         for (Path dir : path) {
             currPath = currPath.resolve(dir);
-            if (!Files.isExecutable(currPath)) {
+            DirectoryCache.DirectoryInfo info;
+            try {
+                info = DirectoryCache.lookup(currPath);
+            } catch (IOException e) {
+                info = null;
+            }
+            boolean isExecutable = info == null ? Files.isExecutable(currPath) : info.isExecutable();
+            if (!isExecutable) {
                 throw new CdException(originalPath + ERROR_SEMICOLON + ERR_NO_PERM);
             }
-            if (!Files.isDirectory(currPath)) {
+            if (info == null) {
                 throw new CdException(originalPath + ERROR_SEMICOLON + ERR_IS_NOT_DIR);
             }
         }
@@ -7,9 +7,25 @@ import sg.edu.nus.comp.cs4218.impl.parser.CutArgsParser;
 import sg.edu.nus.comp.cs4218.impl.util.IOUtils;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Deque;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 import static sg.edu.nus.comp.cs4218.impl.util.ErrorConstants.ERR_MISSING_ARG;
 import static sg.edu.nus.comp.cs4218.impl.util.ErrorConstants.ERR_NULL_STREAMS;
@@ -22,12 +38,23 @@ import static sg.edu.nus.comp.cs4218.impl.util.StringUtils.STRING_STDIN_DASH;
  * It allows users to specify ranges and options to perform cutting operations.
  */
 public class CutApplication implements CutInterface { //NOPMD
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+    private static final int CHUNK_SIZE = 8 * 1024 * 1024;
+    private static final int MAX_PENDING_CHUNKS = 2 * Math.max(1, Runtime.getRuntime().availableProcessors());
+    private static final ExecutorService CUT_POOL = ForkJoinPool.commonPool();
+    private static final String ERR_START_INDEX = "Start index cannot start with 0 or lesser";
+    private static final String ERR_LINE_TOO_LONG = "Line too long to cut in parallel";
+
+    // Set by --parallel to cut files in chunks on several threads
+    private boolean isParallel;
 
     /**
      * Executes the cut command based on the provided arguments.
      *
      * @param args   An array of strings representing the arguments passed to the cut command.
-     *               Valid arguments include flags for specifying cutting mode (-c for character, -b for byte),
+     *               Valid arguments include flags for specifying cutting mode (-c for character, -b for byte,
+     *               -f for field with -d for the delimiter and -s to skip lines without one, and
+     *               --parallel to cut files on several threads),
      *               and range specifications indicating which portions of each line to cut.
      * @param stdin  An InputStream representing standard input. The content to cut if no file path is provided.
      * @param stdout An OutputStream representing standard output. The result of the cut operation is written here.
@@ -69,24 +96,19 @@ public class CutApplication implements CutInterface { //NOPMD
             throw new CutException(ERR_MISSING_ARG);
         }
 
-        // Perform the cut operation based on the parsed arguments
-        try {
-            String result;
-            if (fileNames == null || fileNames.isEmpty()) {
-                // If no file names are provided, cut from stdin
-                result = cutFromStdin(isCharPo, isBytePo, ranges, stdin);
-            } else if (fileNames.contains(STRING_STDIN_DASH)) {
-                // If standard input is included in file names
-                result = cutFromFilesAndStdin(isCharPo, isBytePo, ranges, stdin, fileNames.toArray(new String[0]));
-            } else {
-                // If no standard input and file names are provided
-                result = cutFromFiles(isCharPo, isBytePo, ranges, fileNames.toArray(new String[0]));
-            }
+        isParallel = argsParser.isParallel();
 
-            // Write the result to the output stream
-            stdout.write(result.getBytes());
-        } catch (IOException e) {
-            throw new RuntimeException(e);
+        // If no file names are provided, cut from stdin
+        String[] inputs = fileNames == null || fileNames.isEmpty()
+                ? new String[]{STRING_STDIN_DASH}
+                : fileNames.toArray(new String[0]);
+
+        // Each line is cut and written to the output stream as soon as it is read
+        if (argsParser.isFieldPo()) {
+            cutFieldsToStream(ranges, argsParser.getDelimiter(), argsParser.isOnlyDelimited(), stdin, stdout,
+                    inputs);
+        } else {
+            cutToStream(isCharPo, isBytePo, ranges, stdin, stdout, inputs);
         }
     }
 
@@ -107,43 +129,8 @@ public class CutApplication implements CutInterface { //NOPMD
             throw new CutException("No files provided.");
         }
 
-        StringBuilder result = new StringBuilder();
-
-        for (String fileString : fileName) {
-            File file = IOUtils.resolveFilePath(fileString).toFile();
-            if (!file.exists() || !file.isFile()) {
-                throw new CutException("File does not exist or is not a regular file: " + fileName);
-            }
-
-            // Check file read permission
-            if (!file.canRead()) {
-                throw new CutException(ERR_READING_FILE);
-            }
-
-            try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
-                String line;
-                List<String> lines = new ArrayList<>();
-                while ((line = reader.readLine()) != null) {
-                    lines.add(line);
-                }
-
-                cutInputString(isCharPo, isBytePo, ranges, lines);
-                result.append(String.join(System.lineSeparator(), lines)).append(System.lineSeparator());
-            } catch (IOException e) {
-                CutException cutException = new CutException("Error reading file: " + fileString + ". " + e.getMessage());
-                cutException.initCause(e);
-                throw cutException;
-            } catch (InvalidArgsException e) {
-                CutException cutException = new CutException(e.getMessage());
-                cutException.initCause(e);
-                throw cutException;
-            } catch (Exception e) {
-                CutException cutException = new CutException(e.getMessage());
-                cutException.initCause(e);
-                throw cutException;
-            }
-        }
-
+        ByteArrayOutputStream result = new ByteArrayOutputStream();
+        cutToStream(isCharPo, isBytePo, ranges, null, result, fileName);
         return result.toString();
     }
 
@@ -163,185 +150,457 @@ public class CutApplication implements CutInterface { //NOPMD
             throw new CutException("Null input stream provided.");
         }
 
-        StringBuilder result = new StringBuilder();
+        ByteArrayOutputStream result = new ByteArrayOutputStream();
+        cutToStream(isCharPo, isBytePo, ranges, stdin, result, STRING_STDIN_DASH);
+        return result.toString();
+    }
 
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(stdin))) {
-            String line;
-            List<String> lines = new ArrayList<>();
-            while ((line = reader.readLine()) != null) {
-                lines.add(line);
-            }
+    /**
+     * Cuts portions of content from files and standard input based on the provided options and ranges.
+     * It handles the dash symbol convention for standard input.
+     *
+     * @param isCharPo  Flag indicating if cutting is based on character position.
+     * @param isBytePo  Flag indicating if cutting is based on byte position.
+     * @param ranges    A list of int arrays representing the start and end indices of ranges to cut.
+     * @param stdin     An InputStream representing standard input.
+     * @param fileNames An array of strings representing the file paths from which to cut content, including the dash symbol "-" for standard input.
+     * @return A string representing the cut content from files and standard input.
+     * @throws CutException If an error occurs during the cut operation, such as invalid arguments or input reading errors.
+     */
+    public String cutFromFilesAndStdin(Boolean isCharPo, Boolean isBytePo, List<int[]> ranges, InputStream stdin, String... fileNames) throws CutException { //NOPMD
+        if (stdin == null) {
+            throw new CutException("Null input stream provided.");
+        }
 
-            cutInputString(isCharPo, isBytePo, ranges, lines);
-            result.append(String.join(System.lineSeparator(), lines)).append(System.lineSeparator());
-        } catch (IOException e) {
-            CutException cutException = new CutException("Error reading input stream. " + e.getMessage());
-            cutException.initCause(e);
-            throw cutException;
-        } catch (InvalidArgsException e) {
-            CutException cutException = new CutException(e.getMessage());
-            cutException.initCause(e);
-            throw cutException;
+        if (fileNames == null || fileNames.length == 0) {
+            throw new CutException("No files provided.");
         }
 
+        ByteArrayOutputStream result = new ByteArrayOutputStream();
+        cutToStream(isCharPo, isBytePo, ranges, stdin, result, fileNames);
         return result.toString();
     }
 
-    protected void cutInputString(boolean isCharPo, boolean isBytePo, List<int[]> ranges, List<String> lines) throws InvalidArgsException {
-        for (int i = 0; i < lines.size(); i++) {
-            String line = lines.get(i);
-            StringBuilder cutLine = new StringBuilder();
+    /**
+     * Cuts every line of the given inputs and writes the result to the output stream as it goes. Each input is
+     * read through a reusable buffer, so memory is bounded by the longest line rather than the input size.
+     * Standard input is cut first if "-" is present, followed by the files in order.
+     *
+     * @param isCharPo  Flag indicating if cutting is based on character position.
+     * @param isBytePo  Flag indicating if cutting is based on byte position.
+     * @param ranges    A list of int arrays representing the start and end indices of ranges to cut.
+     * @param stdin     An InputStream read for "-" in fileNames, or null if "-" names a file.
+     * @param stdout    An OutputStream to write the cut lines to.
+     * @param fileNames An array of strings representing the file paths from which to cut content.
+     * @throws CutException If the ranges are invalid, or an input cannot be read or the output cannot be written.
+     */
+    protected void cutToStream(Boolean isCharPo, Boolean isBytePo, List<int[]> ranges, InputStream stdin,//NOPMD
+                               OutputStream stdout, String... fileNames) throws CutException {
+        LineCutter cutter = new LineCutter(compileRuns(ranges), isCharPo, isBytePo, null, false, stdout);
+        cutInputs(cutter, stdin, fileNames);
+    }
 
-            // Check if the line is not empty
-            if (!line.isEmpty()) {
-                if (isCharPo) {
-                    cutByCharacterPosition(line, ranges, cutLine);
-                }
-                if (isBytePo) {
-                    cutByBytePosition(line, ranges, cutLine);
-                }
+    /**
+     * Cuts the selected fields of every line of the given inputs and writes them to the output stream, joined by
+     * the delimiter. Each line is scanned once, and the scan stops after the highest selected field. Lines that
+     * contain no delimiter are written whole, unless isOnlyDelimited is set.
+     *
+     * @param ranges          A list of int arrays representing the start and end indices of fields to cut.
+     * @param delimiter       The character separating fields.
+     * @param isOnlyDelimited Flag indicating if lines containing no delimiter are left out.
+     * @param stdin           An InputStream read for "-" in fileNames, or null if "-" names a file.
+     * @param stdout          An OutputStream to write the cut lines to.
+     * @param fileNames       An array of strings representing the file paths from which to cut content.
+     * @throws CutException If the ranges are invalid, or an input cannot be read or the output cannot be written.
+     */
+    protected void cutFieldsToStream(List<int[]> ranges, char delimiter, boolean isOnlyDelimited,//NOPMD
+                                     InputStream stdin, OutputStream stdout, String... fileNames) throws CutException {
+        byte[] delimiterBytes = String.valueOf(delimiter).getBytes(Charset.defaultCharset());
+        LineCutter cutter = new LineCutter(compileRuns(ranges), false, false, delimiterBytes, isOnlyDelimited, stdout);
+        cutInputs(cutter, stdin, fileNames);
+    }
+
+    private void cutInputs(LineCutter cutter, InputStream stdin, String... fileNames) throws CutException {
+        // Validate every file before any output is written
+        boolean hasStdin = false;
+        List<File> files = new ArrayList<>();
+        for (String fileString : fileNames) {
+            if (stdin != null && fileString.equals(STRING_STDIN_DASH)) {
+                hasStdin = true;
+                continue;
+            }
+            File file = IOUtils.resolveFilePath(fileString).toFile();
+            if (!file.exists() || !file.isFile()) {
+                throw new CutException("File does not exist or is not a regular file: " + fileString);
             }
 
-            lines.set(i, cutLine.toString());
+            // Check file read permission
+            if (!file.canRead()) {
+                throw new CutException(ERR_READING_FILE);
+            }
+            files.add(file);
         }
-    }
 
-    private void cutByCharacterPosition(String line, List<int[]> ranges, StringBuilder cutLine) throws InvalidArgsException {
-        for (int[] range : ranges) {
-            int startIdx = range[0] - 1; // Adjust index to 0-based
-            int endIdx = range[1]; // End index is inclusive
-
-            // Ignore if end index is lower than start index
-            if (startIdx <= endIdx) {
-                // Adjust start index if it is less than 0
-                if (startIdx < 0) {
-                    throw new InvalidArgsException("Start index cannot start with 0 or lesser");
-                }
-                // Adjust end index if it is greater than the last index of the line
-                if (endIdx > line.length()) {
-                    endIdx = line.length();
+        if (hasStdin) {
+            try {
+                cutter.cutAll(stdin);
+            } catch (IOException e) {
+                CutException cutException = new CutException("Error reading input stream. " + e.getMessage());
+                cutException.initCause(e);
+                throw cutException;
+            }
+        }
+        for (File file : files) {
+            try {
+                if (isParallel && file.length() > 0) {
+                    cutInParallel(cutter, file.toPath());
+                } else {
+                    try (InputStream input = Files.newInputStream(file.toPath())) {
+                        cutter.cutAll(input);
+                    }
                 }
-
-                // Append the substring based on the adjusted start and end indices
-                cutLine.append(line, startIdx, endIdx);
+            } catch (IOException e) {
+                CutException cutException = new CutException("Error reading file: " + file.getPath() + ". "
+                        + e.getMessage());
+                cutException.initCause(e);
+                throw cutException;
             }
         }
+        try {
+            cutter.flush();
+        } catch (IOException e) {
+            CutException cutException = new CutException(e.getMessage());
+            cutException.initCause(e);
+            throw cutException;
+        }
     }
 
-    private void cutByBytePosition(String line, List<int[]> ranges, StringBuilder cutLine) {
-        for (int[] range : ranges) {
-            int startByte = range[0] - 1; // Adjust index to 0-based
-            int endByte = range[1]; // End index is inclusive
+    /**
+     * Cuts a file by memory-mapping it in chunks that end at line boundaries, and cutting each chunk on a worker
+     * thread. Pending chunks are queued in submission order and written out strictly in that
+     * order, so the output is identical to cutting the file sequentially. At most MAX_PENDING_CHUNKS chunks are
+     * in flight at a time, which bounds the memory used.
+     */
+    private void cutInParallel(LineCutter cutter, Path path) throws IOException, CutException {
+        Deque<Future<byte[]>> pending = new ArrayDeque<>(MAX_PENDING_CHUNKS);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long position = 0;
+            while (position < size) {
+                if (pending.size() == MAX_PENDING_CHUNKS) {
+                    cutter.writeCut(awaitChunk(pending.removeFirst()));
+                }
+                MappedByteBuffer chunk = mapChunk(channel, position, size);
+                position += chunk.limit();
+                pending.addLast(CUT_POOL.submit(() -> cutter.cutChunk(chunk)));
+            }
+            while (!pending.isEmpty()) {
+                cutter.writeCut(awaitChunk(pending.removeFirst()));
+            }
+        } finally {
+            for (Future<byte[]> future : pending) {
+                future.cancel(true);
+            }
+        }
+    }
 
-            try {
-                byte[] lineBytes = line.getBytes("UTF-8");
-                int actualEndByte = Math.min(endByte, lineBytes.length); // Ensure endByte does not exceed file length
-                if (startByte >= 0 && startByte < lineBytes.length) {
-                    cutLine.append(new String(lineBytes, startByte, actualEndByte - startByte, "UTF-8"));
+    /**
+     * Maps the chunk starting at the given position, ending just after the last newline within CHUNK_SIZE bytes.
+     * The chunk grows if a single line is longer than that.
+     */
+    private MappedByteBuffer mapChunk(FileChannel channel, long position, long size) throws IOException {
+        long length = Math.min(CHUNK_SIZE, size - position);
+        while (true) {
+            MappedByteBuffer chunk = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+            if (position + length == size) {
+                return chunk;
+            }
+            for (int i = (int) length - 1; i >= 0; i--) {
+                if (chunk.get(i) == '\n') {
+                    chunk.limit(i + 1);
+                    return chunk;
                 }
-            } catch (UnsupportedEncodingException e) {
-                // Handle encoding exception
-                e.printStackTrace();
             }
+            if (length == Integer.MAX_VALUE) {
+                throw new IOException(ERR_LINE_TOO_LONG);
+            }
+            length = Math.min(Math.min(length * 2, Integer.MAX_VALUE), size - position);
         }
     }
 
+    private byte[] awaitChunk(Future<byte[]> future) throws IOException, CutException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            CutException cutException = new CutException(e.getMessage());
+            cutException.initCause(e);
+            throw cutException;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            CutException cutException = new CutException(e.getCause().getMessage());
+            cutException.initCause(e.getCause());
+            throw cutException;
+        }
+    }
 
+    private static int[] compileRuns(List<int[]> ranges) throws CutException {
+        try {
+            return compileRanges(ranges);
+        } catch (InvalidArgsException e) {
+            CutException cutException = new CutException(e.getMessage());
+            cutException.initCause(e);
+            throw cutException;
+        }
+    }
 
     /**
-     * Cuts portions of content from files and standard input based on the provided options and ranges.
-     * It handles the dash symbol convention for standard input.
+     * Compiles the ranges into runs of selected positions, sorted by position with overlapping and adjacent
+     * ranges merged. The result holds a 0-based inclusive start followed by a 0-based exclusive end for each run.
+     * Ranges whose start is after their end select nothing and are dropped.
      *
-     * @param isCharPo  Flag indicating if cutting is based on character position.
-     * @param isBytePo  Flag indicating if cutting is based on byte position.
-     * @param ranges    A list of int arrays representing the start and end indices of ranges to cut.
-     * @param stdin     An InputStream representing standard input.
-     * @param fileNames An array of strings representing the file paths from which to cut content, including the dash symbol "-" for standard input.
-     * @return A string representing the cut content from files and standard input.
-     * @throws CutException If an error occurs during the cut operation, such as invalid arguments or input reading errors.
+     * @param ranges A list of int arrays representing the 1-based start and end indices of ranges to cut.
+     * @return An array of start and end pairs.
+     * @throws InvalidArgsException If a range starts at 0 or lower.
      */
-    public String cutFromFilesAndStdin(Boolean isCharPo, Boolean isBytePo, List<int[]> ranges, InputStream stdin, String... fileNames) throws CutException { //NOPMD
-        if (stdin == null) {
-            throw new CutException("Null input stream provided.");
+    protected static int[] compileRanges(List<int[]> ranges) throws InvalidArgsException {
+        List<int[]> sorted = new ArrayList<>();
+        for (int[] range : ranges) {
+            if (range[0] > range[1]) {
+                continue;
+            }
+            if (range[0] < 1) {
+                throw new InvalidArgsException(ERR_START_INDEX);
+            }
+            sorted.add(new int[]{range[0] - 1, range[1]});
         }
+        sorted.sort((first, second) -> Integer.compare(first[0], second[0]));
 
-        if (fileNames == null || fileNames.length == 0) {
-            throw new CutException("No files provided.");
+        int[] runs = new int[sorted.size() * 2];
+        int count = 0;
+        for (int[] range : sorted) {
+            if (count > 0 && range[0] <= runs[count - 1]) {
+                runs[count - 1] = Math.max(runs[count - 1], range[1]);
+            } else {
+                runs[count++] = range[0];
+                runs[count++] = range[1];
+            }
         }
+        return Arrays.copyOf(runs, count);
+    }
 
-        StringBuilder result = new StringBuilder();
+    /**
+     * Splits inputs into lines and writes the selected runs of each line. The read buffer and the decoded line
+     * are reused from line to line, and grow only to fit the longest line seen.
+     */
+    private static final class LineCutter {
+        private static final byte[] LINE_SEPARATOR = System.lineSeparator().getBytes();
+
+        private final int[] runs;
+        private final boolean isCharPo;
+        private final boolean isBytePo;
+        private final byte[] delimiter;
+        private final boolean isOnlyDelimited;
+        private final OutputStream output;
+        private final Writer writer;
+        private final CharsetDecoder decoder;
+        private byte[] buffer;
+        private CharBuffer chars = CharBuffer.allocate(0);
+
+        /**
+         * Creates a cutter that selects fields split by the delimiter if it is not null, or otherwise
+         * characters or bytes.
+         */
+        private LineCutter(int[] runs, boolean isCharPo, boolean isBytePo, byte[] delimiter,//NOPMD
+                           boolean isOnlyDelimited, OutputStream stdout) {
+            this.runs = runs;
+            this.isCharPo = isCharPo;
+            this.isBytePo = isBytePo;
+            this.delimiter = delimiter;
+            this.isOnlyDelimited = isOnlyDelimited;
+            this.output = new BufferedOutputStream(stdout, READ_BUFFER_SIZE);
+            Charset charset = Charset.defaultCharset();
+            this.writer = new OutputStreamWriter(output, charset);
+            this.decoder = charset.newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPLACE)
+                    .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        }
 
-        // Flag to check if standard input is included
-        boolean includeStdin = false;
+        /**
+         * Cuts every line of the input. A line ends at "\n", optionally preceded by "\r". An empty input
+         * produces a single empty line.
+         */
+        private void cutAll(InputStream input) throws IOException {
+            if (buffer == null) {
+                buffer = new byte[READ_BUFFER_SIZE];
+            }
+            int start = 0;
+            int end = 0;
+            boolean hasLine = false;
+            while (true) {
+                int next = cutCompleteLines(buffer, start, end);
+                hasLine = hasLine || next > start;
+                start = next;
+
+                if (start > 0) {
+                    System.arraycopy(buffer, start, buffer, 0, end - start);
+                    end -= start;
+                    start = 0;
+                }
+                if (end == buffer.length) {
+                    buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                }
+                int read = input.read(buffer, end, buffer.length - end);
+                if (read == -1) {
+                    break;
+                }
+                end += read;
+            }
+
+            if (end > start || !hasLine) {
+                cutLine(buffer, start, end - start);
+            }
+        }
 
-        // Handle standard input if "-" is present in fileNames
-        for (String fileName : fileNames) {
-            if (fileName.equals(STRING_STDIN_DASH)) {
-                includeStdin = true;
-                break;
+        /**
+         * Cuts every line of a non-empty chunk of input with a new cutter, and returns the cut output. This may be
+         * called from several threads at once.
+         */
+        private byte[] cutChunk(ByteBuffer chunk) throws IOException {
+            byte[] data = new byte[chunk.limit()];
+            chunk.get(data);
+            ByteArrayOutputStream cut = new ByteArrayOutputStream(data.length);
+            LineCutter worker = new LineCutter(runs, isCharPo, isBytePo, delimiter, isOnlyDelimited, cut);
+            int next = worker.cutCompleteLines(data, 0, data.length);
+            if (next < data.length) {
+                worker.cutLine(data, next, data.length - next);
             }
+            worker.flush();
+            return cut.toByteArray();
         }
 
-        // Handle standard input
-        if (includeStdin) {
-            try (BufferedReader reader = new BufferedReader(new InputStreamReader(stdin))) {
-                String line;
-                List<String> lines = new ArrayList<>();
-                while ((line = reader.readLine()) != null) {
-                    lines.add(line);
+        /**
+         * Cuts every line in the data between start and end that is terminated by a newline, and returns the
+         * index just after the last one.
+         */
+        private int cutCompleteLines(byte[] data, int start, int end) throws IOException {
+            int lineStart = start;
+            for (int i = start; i < end; i++) {
+                if (data[i] == '\n') {
+                    int lineEnd = i > lineStart && data[i - 1] == '\r' ? i - 1 : i;
+                    cutLine(data, lineStart, lineEnd - lineStart);
+                    lineStart = i + 1;
                 }
+            }
+            return lineStart;
+        }
 
-                cutInputString(isCharPo, isBytePo, ranges, lines);
-                result.append(String.join(System.lineSeparator(), lines)).append(System.lineSeparator());
-            } catch (IOException e) {
-                CutException cutException = new CutException("Error reading input stream. " + e.getMessage());
-                cutException.initCause(e);
-                throw cutException;
-            } catch (InvalidArgsException e) {
-                CutException cutException = new CutException(e.getMessage());
-                cutException.initCause(e);
-                throw cutException;
+        /**
+         * Writes output that was cut by another cutter.
+         */
+        private void writeCut(byte[] cut) throws IOException {
+            writer.flush();
+            output.write(cut);
+        }
+
+        private void cutLine(byte[] line, int offset, int length) throws IOException {
+            if (delimiter != null) {
+                cutFields(line, offset, length);
+                return;
+            }
+            if (isCharPo) {
+                cutChars(line, offset, length);
+                writer.write(System.lineSeparator());
+                return;
+            }
+            if (isBytePo) {
+                for (int i = 0; i < runs.length && runs[i] < length; i += 2) {
+                    output.write(line, offset + runs[i], Math.min(runs[i + 1], length) - runs[i]);
+                }
             }
+            output.write(LINE_SEPARATOR);
         }
 
-        // Handle files
-        for (String fileString : fileNames) {
-            // Skip standard input as it has already been handled
-            if (fileString.equals(STRING_STDIN_DASH)) {
-                continue;
+        private void cutFields(byte[] line, int offset, int length) throws IOException {
+            int end = offset + length;
+            int fieldEnd = indexOfDelimiter(line, offset, end);
+            if (fieldEnd == end) {
+                if (!isOnlyDelimited) {
+                    output.write(line, offset, length);
+                    output.write(LINE_SEPARATOR);
+                }
+                return;
             }
 
-            File file = IOUtils.resolveFilePath(fileString).toFile();
-            if (!file.exists() || !file.isFile()) {
-                throw new CutException("File does not exist or is not a regular file: " + fileString);
+            int lastField = runs.length == 0 ? 0 : runs[runs.length - 1];
+            int fieldStart = offset;
+            int run = 0;
+            boolean isFirstField = true;
+            for (int field = 0; field < lastField; field++) {
+                while (field >= runs[run + 1]) {
+                    run += 2;
+                }
+                if (field >= runs[run]) {
+                    if (!isFirstField) {
+                        output.write(delimiter);
+                    }
+                    output.write(line, fieldStart, fieldEnd - fieldStart);
+                    isFirstField = false;
+                }
+                if (fieldEnd == end) {
+                    break;
+                }
+                fieldStart = fieldEnd + delimiter.length;
+                fieldEnd = indexOfDelimiter(line, fieldStart, end);
             }
+            output.write(LINE_SEPARATOR);
+        }
 
-            // Check file read permission
-            if (!file.canRead()) {
-                throw new CutException(ERR_READING_FILE);
+        /**
+         * Returns the index of the next delimiter in the line, or end if there is none.
+         */
+        private int indexOfDelimiter(byte[] line, int from, int end) {
+            byte first = delimiter[0];
+            for (int i = from; i <= end - delimiter.length; i++) {
+                if (line[i] == first && matchesDelimiter(line, i)) {
+                    return i;
+                }
             }
+            return end;
+        }
 
-            try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
-                String line;
-                List<String> lines = new ArrayList<>();
-                while ((line = reader.readLine()) != null) {
-                    lines.add(line);
+        private boolean matchesDelimiter(byte[] line, int index) {
+            for (int i = 1; i < delimiter.length; i++) {
+                if (line[index + i] != delimiter[i]) {
+                    return false;
                 }
+            }
+            return true;
+        }
 
-                cutInputString(isCharPo, isBytePo, ranges, lines);
-                result.append(String.join(System.lineSeparator(), lines)).append(System.lineSeparator());
-            } catch (IOException e) {
-                CutException cutException = new CutException("Error reading file: " + fileString + ". " + e.getMessage());
-                cutException.initCause(e);
-                throw cutException;
-            } catch (InvalidArgsException e) {
-                CutException cutException = new CutException(e.getMessage());
-                cutException.initCause(e);
-                throw cutException;
+        private void cutChars(byte[] line, int offset, int length) throws IOException {
+            int capacity = (int) Math.ceil(length * (double) decoder.maxCharsPerByte());
+            if (chars.capacity() < capacity) {
+                chars = CharBuffer.allocate(capacity);
+            }
+            chars.clear();
+            decoder.reset();
+            decoder.decode(ByteBuffer.wrap(line, offset, length), chars, true);
+            decoder.flush(chars);
+
+            int charCount = chars.position();
+            char[] decoded = chars.array();
+            for (int i = 0; i < runs.length && runs[i] < charCount; i += 2) {
+                writer.write(decoded, runs[i], Math.min(runs[i + 1], charCount) - runs[i]);
             }
         }
 
-        return result.toString();
+        private void flush() throws IOException {
+            writer.flush();
+            output.flush();
+        }
     }
 
 }
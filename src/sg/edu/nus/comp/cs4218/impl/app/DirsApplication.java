@@ -0,0 +1,66 @@
+package sg.edu.nus.comp.cs4218.impl.app;
+
+import sg.edu.nus.comp.cs4218.Environment;
+import sg.edu.nus.comp.cs4218.app.DirsInterface;
+import sg.edu.nus.comp.cs4218.exception.DirsException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static sg.edu.nus.comp.cs4218.impl.util.ErrorConstants.*;
+import static sg.edu.nus.comp.cs4218.impl.util.StringUtils.STRING_NEWLINE;
+
+public class DirsApplication implements DirsInterface {
+    public static final String CLEAR_OPTION = "-c";
+
+    /**
+     * Returns the current directory followed by the directories on the directory stack, from the top down,
+     * separated by spaces.
+     */
+    @Override
+    public String listDirectories() {
+        return formatStack();
+    }
+
+    static String formatStack() {
+        StringBuilder result = new StringBuilder(Environment.currentDirectory);
+        for (String directory : CdApplication.getStack()) {
+            result.append(' ').append(directory);
+        }
+        return result.toString();
+    }
+
+    /**
+     * Runs the dirs application. With -c, clears the directory stack instead of printing it.
+     *
+     * @param args   Array of arguments for the application.
+     * @param stdin  An InputStream, not used.
+     * @param stdout An OutputStream to print the directory stack to.
+     * @throws DirsException If an unknown argument is given, or if input argument is null.
+     */
+    @Override
+    public void run(String[] args, InputStream stdin, OutputStream stdout) throws DirsException {
+        if (args == null) {
+            throw new DirsException(ERR_NULL_ARGS);
+        }
+        if (stdin == null || stdout == null) {
+            throw new DirsException(ERR_NULL_STREAMS);
+        }
+        if (args.length > 1 || args.length == 1 && !CLEAR_OPTION.equals(args[0])) {
+            throw new DirsException(ERR_INVALID_FLAG);
+        }
+        if (args.length == 1) {
+            CdApplication.clearStack();
+            return;
+        }
+        try {
+            stdout.write((listDirectories() + STRING_NEWLINE).getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            DirsException dirsException = new DirsException(ERR_WRITE_STREAM);
+            dirsException.initCause(e);
+            throw dirsException;
+        }
+    }
+}
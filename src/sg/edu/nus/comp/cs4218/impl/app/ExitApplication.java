@@ -8,23 +8,34 @@ import sg.edu.nus.comp.cs4218.exception.ExitException;
 
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.Arrays;
 
 public class ExitApplication implements ExitInterface {
 
+    public static final String WAIT_OPTION = "--wait";
+
     /**
-     * Runs the exit application.
+     * Runs the exit application. With --wait, the shell first waits for directories being deleted in the
+     * background by rm --async.
      *
-     * @param args   Array of arguments for the application, not used.
+     * @param args   Array of arguments for the application.
      * @param stdin  An InputStream, not used.
      * @param stdout An OutputStream, not used.
      * @throws ExitException
      */
     @Override
     public void run(String[] args, InputStream stdin, OutputStream stdout) throws ExitException {
-        // Format: exit
+        // Format: exit [--wait]
         if (stdout == null || stdin == null) {
             throw new ExitException(ERR_NULL_STREAMS);
         }
+        if (args != null && Arrays.asList(args).contains(WAIT_OPTION)) {
+            try {
+                RmApplication.awaitReaps();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
         terminateExecution();
     }
 
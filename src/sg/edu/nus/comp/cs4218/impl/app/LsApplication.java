@@ -5,19 +5,38 @@ import sg.edu.nus.comp.cs4218.app.LsInterface;
 import sg.edu.nus.comp.cs4218.exception.InvalidArgsException;
 import sg.edu.nus.comp.cs4218.exception.LsException;
 import sg.edu.nus.comp.cs4218.impl.parser.LsArgsParser;
+import sg.edu.nus.comp.cs4218.impl.util.DirectoryCache;
 import sg.edu.nus.comp.cs4218.impl.util.StringUtils;
 
-import java.io.File;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.InvalidPathException;
+import java.nio.file.LinkOption;
+import java.nio.file.NotDirectoryException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.nio.file.attribute.PosixFileAttributes;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
-import java.util.Objects;
+import java.util.stream.Stream;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 import static sg.edu.nus.comp.cs4218.impl.util.ErrorConstants.*;
 import static sg.edu.nus.comp.cs4218.impl.util.StringUtils.CHAR_FILE_SEP;
@@ -26,12 +45,49 @@ import static sg.edu.nus.comp.cs4218.impl.util.StringUtils.STRING_CURR_DIR;
 public class LsApplication implements LsInterface { //NOPMD
 
     private final static String PATH_CURR_DIR = STRING_CURR_DIR + CHAR_FILE_SEP;
+    private static final ExecutorService LIST_POOL = ForkJoinPool.commonPool();
+    private static final int PARALLEL_ATTRIBUTES_THRESHOLD = 1024;
+    private static final Duration RECENT_PERIOD = Duration.ofDays(182);
+    private static final DateTimeFormatter RECENT_FORMAT = DateTimeFormatter.ofPattern("MMM ppd HH:mm");
+    private static final DateTimeFormatter OLD_FORMAT = DateTimeFormatter.ofPattern("MMM ppd  yyyy");
 
     @Override
     public String listFolderContent(Boolean isRecursive, Boolean isSortByExt,
                                     String... folderName) throws LsException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try {
+            listFolderContentToStream(isRecursive, isSortByExt ? SortOrder.EXTENSION : SortOrder.NAME, false,
+                    output, folderName);
+        } catch (IOException e) {
+            LsException lsException = new LsException(ERR_WRITE_STREAM);
+            lsException.initCause(e);
+            throw lsException;
+        }
+        return output.toString();
+    }
+
+    /**
+     * Writes the listing of the specified folders, or of the current folder if none are specified, with leading
+     * and trailing whitespace left out. Each directory block is written as soon as it and every block before it
+     * are complete, and in recursive mode the subdirectories of a directory are listed in parallel.
+     *
+     * @param isRecursive Boolean option to recursively list the folder contents
+     * @param sortOrder   Order of the entries of each folder
+     * @param isLong      Boolean option to list the type, permissions, owner, group, size and modification time
+     *                    of every entry
+     * @param stdout      OutputStream to write the listing to
+     * @param folderName  Array of String of folder names
+     * @throws LsException If a folder name cannot be resolved.
+     * @throws IOException If the listing cannot be written.
+     */
+    protected void listFolderContentToStream(Boolean isRecursive, SortOrder sortOrder, Boolean isLong,//NOPMD
+                                             OutputStream stdout, String... folderName)
+            throws LsException, IOException {
+        OutputStream output = new TrimmingOutputStream(stdout);
         if (folderName.length == 0 && !isRecursive) {
-            return listCwdContent(isSortByExt);
+            output.write(listCwdContent(sortOrder, isLong).getBytes());
+            output.flush();
+            return;
         }
 
         List<Path> paths;
@@ -43,7 +99,8 @@ public class LsApplication implements LsInterface { //NOPMD
             paths = resolvePaths(folderName);
         }
 
-        return buildResult(paths, isRecursive, isSortByExt).trim();
+        writeResult(paths, isRecursive, sortOrder, isLong, output);
+        output.flush();
     }
 
     @Override
@@ -77,32 +134,47 @@ public class LsApplication implements LsInterface { //NOPMD
         }
 
         Boolean recursive = parser.isRecursive();
-        Boolean sortByExt = parser.isSortByExt();
+        SortOrder sortOrder = getSortOrder(parser);
+        Boolean isLong = parser.isLong();
         String[] directories = parser.getDirectories()
                 .toArray(new String[parser.getDirectories().size()]);
-        String result = listFolderContent(recursive, sortByExt, directories);
 
         try {
-            stdout.write(result.getBytes());
+            listFolderContentToStream(recursive, sortOrder, isLong, stdout, directories);
             stdout.write(StringUtils.STRING_NEWLINE.getBytes());
-        } catch (Exception e) {
+        } catch (IOException e) {
             LsException lsException = new LsException(ERR_WRITE_STREAM);
             lsException.initCause(e);
             throw lsException;
         }
     }
 
+    /**
+     * Returns the order selected by the flags. Sorting by time takes precedence over sorting by size, which
+     * takes precedence over sorting by extension.
+     */
+    private static SortOrder getSortOrder(LsArgsParser parser) {
+        if (parser.isSortByTime()) {
+            return SortOrder.TIME;
+        }
+        if (parser.isSortBySize()) {
+            return SortOrder.SIZE;
+        }
+        return parser.isSortByExt() ? SortOrder.EXTENSION : SortOrder.NAME;
+    }
+
     /**
      * Lists only the current directory's content and RETURNS. This does not account for recursive
      * mode in cwd.
      *
-     * @param isSortByExt
+     * @param sortOrder
+     * @param isLong
      * @return
      */
-    private String listCwdContent(Boolean isSortByExt) throws LsException {
+    private String listCwdContent(SortOrder sortOrder, Boolean isLong) throws LsException {
         String cwd = Environment.currentDirectory;
         try {
-            return formatContents(getContents(Paths.get(cwd)), isSortByExt);
+            return formatListing(getContents(Paths.get(cwd), sortOrder, isLong), isLong);
         } catch (InvalidDirectoryException e) {
             LsException lsException = new LsException("Unexpected error occurred!");
             lsException.initCause(e);
@@ -111,104 +183,200 @@ public class LsApplication implements LsInterface { //NOPMD
     }
 
     /**
-     * Builds the resulting string to be written into the output stream.
+     * Writes the listing of each path in turn. Directories among the paths are listed in parallel ahead of
+     * being written.
      * <p>
-     * NOTE: This is recursively called if user wants recursive mode.
+     * NOTE: In recursive mode, the subdirectories of every directory are written after it, in order.
      *
      * @param paths       - list of java.nio.Path objects to list
      * @param isRecursive - recursive mode, repeatedly ls the child directories
-     * @param isSortByExt - sorts folder contents alphabetically by file extension (characters after the last ‘.’ (without quotes)). Files with no extension are sorted first.
-     * @return String to be written to output stream.
+     * @param sortOrder   - order of the entries of each directory
+     * @param isLong      - long format, lists the attributes of every entry
+     * @param output      - OutputStream to write the listing to
      */
-    private String buildResult(List<Path> paths, Boolean isRecursive, Boolean isSortByExt) {
-        StringBuilder result = new StringBuilder();
-        for (Path path : paths) {
-            try {
-                List<Path> contents = getContents(path);
-                String formatted = formatContents(contents, isSortByExt);
-                String relativePath = getRelativeToCwd(path).toString();
-                result.append(StringUtils.isBlank(relativePath) ? PATH_CURR_DIR : relativePath);
-                result.append(":\n");
-                result.append(formatted);
-
-                if (!formatted.isEmpty()) {
-                    // Empty directories should not have an additional new line
-                    result.append(StringUtils.STRING_NEWLINE);
+    private void writeResult(List<Path> paths, Boolean isRecursive, SortOrder sortOrder, Boolean isLong,//NOPMD
+                             OutputStream output) throws IOException {
+        List<Future<Listing>> listings = submitListings(paths, sortOrder, isLong, isRecursive);
+        for (int i = 0; i < paths.size(); i++) {
+            Path path = paths.get(i);
+            if (listings.get(i) != null) {
+                writeTree(path, listings.get(i), isRecursive, sortOrder, isLong, output);
+                continue;
+            }
+            // NOTE: This is pretty hackish IMO - we should find a way to change this
+            // If the user is in recursive mode, and if we resolve a file that isn't a directory
+            // we should not spew the error message.
+            //
+            // However the user might have written a command like `ls invalid1 valid1 -R`, what
+            // do we do then?
+            if (!isRecursive) {
+                if (isLong && Files.exists(path, LinkOption.NOFOLLOW_LINKS)) {
+                    Entry entry = new Entry(path, getRelativeToCwd(path).toString());
+                    entry.attributes = EntryAttributes.read(path, true);
+                    output.write(formatLongContents(Collections.singletonList(entry)).getBytes());
+                } else if (path.toFile().exists()) {
+                    output.write(getRelativeToCwd(path).toString().getBytes());
+                } else {
+                    output.write(new InvalidDirectoryException(getRelativeToCwd(path).toString())
+                            .getMessage().getBytes());
                 }
+                output.write(StringUtils.STRING_NEWLINE.getBytes());
+            }
+        }
+    }
+
+    /**
+     * Writes the block of a directory once its listing is complete, followed in recursive mode by the blocks of
+     * its subdirectories, which are all listed in parallel before the first of them is written.
+     */
+    private void writeTree(Path directory, Future<Listing> listing, Boolean isRecursive, SortOrder sortOrder,//NOPMD
+                           Boolean isLong, OutputStream output) throws IOException {
+        Listing contents;
+        try {
+            contents = awaitListing(listing);
+        } catch (IOException e) {
+            output.write(String.format("ls: cannot open directory '%s': %s",
+                    getRelativeToCwd(directory), ERR_NO_PERM).getBytes());
+            output.write(StringUtils.STRING_NEWLINE.getBytes());
+            output.write(StringUtils.STRING_NEWLINE.getBytes());
+            return;
+        }
 
-                result.append(StringUtils.STRING_NEWLINE);
+        String formatted = formatListing(contents, isLong);
+        String relativePath = getRelativeToCwd(directory).toString();
+        StringBuilder block = new StringBuilder();
+        block.append(StringUtils.isBlank(relativePath) ? PATH_CURR_DIR : relativePath);
+        block.append(":\n");
+        block.append(formatted);
+        if (!formatted.isEmpty()) {
+            // Empty directories should not have an additional new line
+            block.append(StringUtils.STRING_NEWLINE);
+        }
+        block.append(StringUtils.STRING_NEWLINE);
+        output.write(block.toString().getBytes());
 
-                // RECURSE!
-                if (isRecursive) {
-                    result.append(buildResult(contents, isRecursive, isSortByExt));
-                }
-            } catch (InvalidDirectoryException e) {
-                // NOTE: This is pretty hackish IMO - we should find a way to change this
-                // If the user is in recursive mode, and if we resolve a file that isn't a directory
-                // we should not spew the error message.
-                //
-                // However the user might have written a command like `ls invalid1 valid1 -R`, what
-                // do we do then?
-                if (!isRecursive) {
-                    if (path.toFile().exists()) {
-                        result.append(getRelativeToCwd(path).toString());
-                    } else {
-                        result.append(e.getMessage());
-                    }
-                    result.append(StringUtils.STRING_NEWLINE);
-                }
+        if (isRecursive) {
+            List<Future<Listing>> children = submitListings(contents.subdirectories, sortOrder, isLong, true);
+            for (int i = 0; i < children.size(); i++) {
+                writeTree(contents.subdirectories.get(i), children.get(i), isRecursive, sortOrder, isLong, output);
+            }
+        }
+    }
+
+    /**
+     * Starts listing every directory among the paths. The returned list holds null for paths that are not
+     * directories. Listings made while walking a tree are not kept in the shared cache.
+     */
+    private List<Future<Listing>> submitListings(List<Path> paths, SortOrder sortOrder, Boolean isLong,//NOPMD
+                                                 boolean isRecursive) {
+        List<Future<Listing>> listings = new ArrayList<>(paths.size());
+        for (Path path : paths) {
+            listings.add(Files.isDirectory(path)
+                    ? LIST_POOL.submit(() -> listDirectory(path, sortOrder, isLong, isRecursive)) : null);
+        }
+        return listings;
+    }
+
+    private Listing awaitListing(Future<Listing> listing) throws IOException {
+        try {
+            return listing.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
             }
+            throw new IOException(e.getCause());
         }
+    }
 
-        return result.toString();
+    /**
+     * Formats a directory listing into a single string, in long format if requested.
+     */
+    private String formatListing(Listing listing, Boolean isLong) {
+        return isLong ? formatLongContents(listing.entries) : formatContents(listing.entries);
     }
 
     /**
-     * Formats the contents of a directory into a single string.
+     * Formats the contents of a directory into a single string. The entries are already sorted.
      *
-     * @param contents    - list of items in a directory
-     * @param isSortByExt - sorts folder contents alphabetically by file extension (characters after the last ‘.’ (without quotes)). Files with no extension are sorted first.
+     * @param contents - list of items in a directory
      * @return
      */
-    private String formatContents(List<Path> contents, Boolean isSortByExt) {
-        // TODO: To implement sorting by extension
-        List<String> fileNames = new ArrayList<>();
-        for (Path path : contents) {
-            fileNames.add(path.getFileName().toString());
-        }
-
-        if (isSortByExt) {
-            Collections.sort(fileNames, (a, b) -> {
-                String extA = getExtension(a);
-                String extB = getExtension(b);
-                if (extA.isEmpty() && !extB.isEmpty()) {
-                    return -1;
-                } else if (!extA.isEmpty() && extB.isEmpty()) {
-                    return 1;
-                } else {
-                    return extA.compareTo(extB);
-                }
-            });
-        } else {
-            Collections.sort(fileNames);
+    private String formatContents(List<Entry> contents) {
+        StringBuilder result = new StringBuilder();
+        for (Entry entry : contents) {
+            result.append(entry.name);
+            result.append('\n');
         }
 
-        StringBuilder result = new StringBuilder();
-        for (String fileName : fileNames) {
-            result.append(fileName);
+        return result.toString().trim();
+    }
+
+    /**
+     * Formats entries into lines of the form "mode owner group size time name". Column widths are measured over
+     * all entries before the lines are built.
+     *
+     * @param contents - list of items with their attributes read in long format, already sorted
+     * @return
+     */
+    private String formatLongContents(List<Entry> contents) {
+        int ownerWidth = 0;
+        int groupWidth = 0;
+        int sizeWidth = 0;
+        int namesLength = 0;
+        for (Entry entry : contents) {
+            EntryAttributes attributes = entry.attributes;
+            ownerWidth = Math.max(ownerWidth, attributes.owner.length());
+            groupWidth = Math.max(groupWidth, attributes.group.length());
+            sizeWidth = Math.max(sizeWidth, Long.toString(attributes.size).length());
+            namesLength += entry.name.length();
+        }
+        int fixedWidth = EntryAttributes.MODE_WIDTH + ownerWidth + groupWidth + sizeWidth + 12 + 5 + 1;
+
+        Instant now = Instant.now();
+        ZoneId zone = ZoneId.systemDefault();
+        StringBuilder result = new StringBuilder(contents.size() * fixedWidth + namesLength);
+        for (Entry entry : contents) {
+            EntryAttributes attributes = entry.attributes;
+            result.append(attributes.mode).append(' ');
+            appendPadded(result, attributes.owner, ownerWidth, false).append(' ');
+            appendPadded(result, attributes.group, groupWidth, false).append(' ');
+            appendPadded(result, Long.toString(attributes.size), sizeWidth, true).append(' ');
+            Instant modified = attributes.modified.toInstant();
+            boolean isRecent = !modified.isAfter(now) && modified.isAfter(now.minus(RECENT_PERIOD));
+            (isRecent ? RECENT_FORMAT : OLD_FORMAT).formatTo(modified.atZone(zone), result);
+            result.append(' ').append(entry.name);
+            if (attributes.linkTarget != null) {
+                result.append(" -> ").append(attributes.linkTarget);
+            }
             result.append('\n');
         }
 
         return result.toString().trim();
     }
 
+    private static StringBuilder appendPadded(StringBuilder builder, String value, int width, boolean isRightAligned) {
+        if (!isRightAligned) {
+            builder.append(value);
+        }
+        for (int i = value.length(); i < width; i++) {
+            builder.append(' ');
+        }
+        if (isRightAligned) {
+            builder.append(value);
+        }
+        return builder;
+    }
+
     /**
      * Gets the contents in a single specified directory.
      *
      * @param directory
      * @return List of files + directories in the passed directory.
      */
-    private List<Path> getContents(Path directory)
+    private Listing getContents(Path directory, SortOrder sortOrder, Boolean isLong)
             throws InvalidDirectoryException {
         if (!Files.exists(directory)) {
             throw new InvalidDirectoryException(getRelativeToCwd(directory).toString());
@@ -218,17 +386,75 @@ public class LsApplication implements LsInterface { //NOPMD
             throw new InvalidDirectoryException(getRelativeToCwd(directory).toString());
         }
 
-        List<Path> result = new ArrayList<>();
-        File pwd = directory.toFile();
-        for (File f : Objects.requireNonNull(pwd.listFiles())) {
-            if (!f.isHidden()) {
-                result.add(f.toPath());
+        try {
+            return listDirectory(directory, sortOrder, isLong, false);
+        } catch (IOException e) {
+            throw new InvalidDirectoryException(getRelativeToCwd(directory).toString(), e);
+        }
+    }
+
+    /**
+     * Reads the entries of a directory through the shared {@link DirectoryCache}, leaving out hidden ones, sorts
+     * them once on keys computed per entry, and finds which of them are directories. Attributes are read in long
+     * format or when sorting by time or size, in parallel for large directories.
+     *
+     * @param directory
+     * @param sortOrder
+     * @param isLong
+     * @param isUncached If true, the directory is read directly, so that walking a tree does not fill the cache.
+     * @return Sorted entries, and subdirectories sorted by name.
+     * @throws IOException If the directory cannot be read.
+     */
+    private static Listing listDirectory(Path directory, SortOrder sortOrder, Boolean isLong,//NOPMD
+                                         boolean isUncached) throws IOException {
+        DirectoryCache.Listing listing;
+        if (isUncached) {
+            listing = DirectoryCache.readListing(directory);
+        } else {
+            DirectoryCache.DirectoryInfo cached = DirectoryCache.lookup(directory);
+            if (cached == null) {
+                throw new NotDirectoryException(directory.toString());
+            }
+            listing = cached.getListing();
+        }
+        List<Entry> entries = new ArrayList<>();
+        for (String name : listing.getNames()) {
+            Path path = directory.resolve(name);
+            if (!Files.isHidden(path)) {
+                entries.add(new Entry(path, name));
             }
         }
+        if (isLong || sortOrder.isByAttributes) {
+            readAttributes(entries, isLong);
+        }
+        entries.sort(sortOrder.comparator);
 
-        Collections.sort(result);
+        List<Path> subdirectories = new ArrayList<>();
+        for (Entry entry : entries) {
+            if (listing.isDirectory(entry.name)) {
+                subdirectories.add(entry.path);
+            }
+        }
+        if (sortOrder != SortOrder.NAME) {
+            Collections.sort(subdirectories);
+        }
+        return new Listing(entries, subdirectories);
+    }
 
-        return result;
+    private static void readAttributes(List<Entry> entries, boolean isLong) throws IOException {
+        Stream<Entry> stream = entries.size() < PARALLEL_ATTRIBUTES_THRESHOLD
+                ? entries.stream() : entries.parallelStream();
+        try {
+            stream.forEach(entry -> {
+                try {
+                    entry.attributes = EntryAttributes.read(entry.path, isLong);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
     }
 
     /**
@@ -276,11 +502,168 @@ public class LsApplication implements LsInterface { //NOPMD
         return Paths.get(Environment.currentDirectory).relativize(path);
     }
 
-    private String getExtension(String fileName) {
+    private static String getExtension(String fileName) {
         int index = fileName.lastIndexOf('.');
         return (index == -1) ? "" : fileName.substring(index + 1);
     }
 
+    /**
+     * Orders of the entries in a listing. Ties are broken by name.
+     */
+    protected enum SortOrder {
+        NAME(false, Comparator.comparing((Entry entry) -> entry.name)),
+        EXTENSION(false, Comparator.comparing((Entry entry) -> entry.extension)
+                .thenComparing(entry -> entry.name)),
+        TIME(true, Comparator.comparing((Entry entry) -> entry.attributes.modified).reversed()
+                .thenComparing(entry -> entry.name)),
+        SIZE(true, Comparator.comparingLong((Entry entry) -> entry.attributes.size).reversed()
+                .thenComparing(entry -> entry.name));
+
+        private final boolean isByAttributes;
+        private final Comparator<Entry> comparator;
+
+        SortOrder(boolean isByAttributes, Comparator<Entry> comparator) {
+            this.isByAttributes = isByAttributes;
+            this.comparator = comparator;
+        }
+    }
+
+    /**
+     * An entry of a listing with its sort keys, which are computed once.
+     */
+    private static final class Entry {
+        private final Path path;
+        private final String name;
+        private final String extension;
+        private EntryAttributes attributes;
+
+        private Entry(Path path, String name) {
+            this.path = path;
+            this.name = name;
+            this.extension = getExtension(name);
+        }
+    }
+
+    private static final class Listing {
+        private final List<Entry> entries;
+        private final List<Path> subdirectories;
+
+        private Listing(List<Entry> entries, List<Path> subdirectories) {
+            this.entries = entries;
+            this.subdirectories = subdirectories;
+        }
+    }
+
+    /**
+     * Attributes of an entry, read with a single call. The mode, owner and group are only read in long format.
+     * Symbolic links are described themselves rather than their targets.
+     */
+    private static final class EntryAttributes {
+        private static final int MODE_WIDTH = 10;
+        private static final String UNKNOWN = "?";
+
+        private final String mode;
+        private final String owner;
+        private final String group;
+        private final long size;
+        private final FileTime modified;
+        private final Path linkTarget;
+
+        private EntryAttributes(String mode, String owner, String group, BasicFileAttributes attributes,//NOPMD
+                                Path linkTarget) {
+            this.mode = mode;
+            this.owner = owner;
+            this.group = group;
+            this.size = attributes.size();
+            this.modified = attributes.lastModifiedTime();
+            this.linkTarget = linkTarget;
+        }
+
+        private static EntryAttributes read(Path path, boolean isLong) throws IOException {
+            if (!isLong) {
+                BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class,
+                        LinkOption.NOFOLLOW_LINKS);
+                return new EntryAttributes(null, null, null, attributes, null);
+            }
+            BasicFileAttributes attributes;
+            String permissions;
+            String owner;
+            String group;
+            try {
+                PosixFileAttributes posix = Files.readAttributes(path, PosixFileAttributes.class,
+                        LinkOption.NOFOLLOW_LINKS);
+                attributes = posix;
+                permissions = PosixFilePermissions.toString(posix.permissions());
+                owner = posix.owner().getName();
+                group = posix.group().getName();
+            } catch (UnsupportedOperationException e) {
+                attributes = Files.readAttributes(path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+                permissions = UNKNOWN.repeat(MODE_WIDTH - 1);
+                owner = UNKNOWN;
+                group = UNKNOWN;
+            }
+            Path linkTarget = attributes.isSymbolicLink() ? Files.readSymbolicLink(path) : null;
+            return new EntryAttributes(getType(attributes) + permissions, owner, group, attributes, linkTarget);
+        }
+
+        private static char getType(BasicFileAttributes attributes) {
+            if (attributes.isDirectory()) {
+                return 'd';
+            }
+            if (attributes.isSymbolicLink()) {
+                return 'l';
+            }
+            return attributes.isRegularFile() ? '-' : '?';
+        }
+    }
+
+    /**
+     * Leaves out leading and trailing whitespace of everything written, holding back whitespace until it is
+     * followed by something else.
+     */
+    private static final class TrimmingOutputStream extends FilterOutputStream {
+        private final ByteArrayOutputStream pending = new ByteArrayOutputStream();
+        private boolean hasContent;
+
+        private TrimmingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int value) throws IOException {
+            write(new byte[]{(byte) value}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] data, int offset, int length) throws IOException {
+            int start = offset;
+            int end = offset + length;
+            if (!hasContent) {
+                while (start < end && isWhitespace(data[start])) {
+                    start++;
+                }
+                if (start == end) {
+                    return;
+                }
+                hasContent = true;
+            }
+            int last = end;
+            while (last > start && isWhitespace(data[last - 1])) {
+                last--;
+            }
+            if (last > start) {
+                pending.writeTo(out);
+                pending.reset();
+                out.write(data, start, last - start);
+            }
+            pending.write(data, last, end - last);
+        }
+
+        private static boolean isWhitespace(byte value) {
+            return (value & 0xff) <= ' ';
+        }
+    }
+
     private class InvalidDirectoryException extends Exception {
         InvalidDirectoryException(String directory) {
             super(String.format("ls: cannot access '%s': No such file or directory", directory));
@@ -11,15 +11,24 @@ import java.io.InputStream;
 import java.io.OutputStream;
 
 import java.io.File;
+import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 import static sg.edu.nus.comp.cs4218.impl.util.ErrorConstants.*;
 
 public class MkdirApplication implements MkdirInterface {
     String errors = "";
     private static final String MKDIR_PREFIX = "mkdir: ";
+    private static final ForkJoinPool CREATE_POOL = ForkJoinPool.commonPool();
 
     /**
      * Runs the mkdir application with the specified arguments.
@@ -47,20 +56,7 @@ public class MkdirApplication implements MkdirInterface {
                 //if no directory specified after -p flag
                 throw new MkdirException(ERR_MISSING_ARG);
             }
-            for (int i = 1; i < args.length; i++) {
-                String normalizedPath = getNormalizedAbsolutePath(args[i]);
-                if (Files.exists(Path.of(normalizedPath))) {
-                    errors = errors + args[i] + ": " + ERR_FILE_EXISTS + StringUtils.STRING_NEWLINE + MKDIR_PREFIX;
-                    continue;
-//                    throw new MkdirException(String.format(ERR_FILE_EXISTS, args[i]));
-                }
-                Boolean permissionsPass = checkPermissions(normalizedPath, true, args[i]);
-                if (!permissionsPass) {
-                    continue;
-                }
-                File targetDirectory = new File(normalizedPath);
-                targetDirectory.mkdirs();
-            }
+            createFolders(true, Arrays.copyOfRange(args, 1, args.length));
         } else {
             createFolder(args);
         }
@@ -83,21 +79,82 @@ public class MkdirApplication implements MkdirInterface {
             throw new MkdirException(ERR_NULL_ARGS);
         }
         // create folders / folder
+        createFolders(false, folderName);
+    }
 
-        for (String pathName : folderName) {
-            String normalizedPath = getNormalizedAbsolutePath(pathName);
-            if (Files.exists(Path.of(normalizedPath))) {
+    /**
+     * Creates folders in bulk. The requested paths are merged into a prefix trie, so that each distinct ancestor
+     * is checked at most once however many paths share it. The arguments are then validated in order with the same
+     * rules and messages as {@link #checkPermissions}, counting directories planned by earlier arguments as
+     * created, and finally the planned directories are created in parallel, each before its children.
+     *
+     * @param withPFlag Whether missing parent directories should be created.
+     * @param pathNames Folder names as given to the shell.
+     * @throws MkdirException If a folder name is empty.
+     */
+    private void createFolders(boolean withPFlag, String... pathNames) throws MkdirException {
+        PathNode root = new PathNode(Paths.get("/"));
+        for (String pathName : pathNames) {
+            List<PathNode> chain = root.chain(Path.of(getNormalizedAbsolutePath(pathName)));
+            PathNode target = chain.isEmpty() ? root : chain.get(chain.size() - 1);
+            if (target.exists()) {
                 errors = errors + pathName + ": " + ERR_FILE_EXISTS + StringUtils.STRING_NEWLINE + MKDIR_PREFIX;
                 continue;
-//                throw new MkdirException(String.format(ERR_FILE_EXISTS, pathName));
             }
-            Boolean permissionsPass = checkPermissions(normalizedPath, false, pathName);
-            if (!permissionsPass) {
+            String error = withPFlag ? checkPlannedParents(chain) : checkPlannedAncestors(chain);
+            if (error != null) {
+                errors = errors + pathName + ": " + error + StringUtils.STRING_NEWLINE + MKDIR_PREFIX;
                 continue;
             }
-            File directory = new File(normalizedPath);
-            directory.mkdir();
+            for (PathNode node : chain) {
+                if (node == target || withPFlag && !node.exists()) {
+                    node.plan();
+                }
+            }
+        }
+        CREATE_POOL.invoke(new CreateTask(root));
+    }
+
+    /**
+     * Applies the rules of {@link #checkPermissions} with the p flag to a trie chain: existing ancestors must be
+     * executable, and the deepest existing one must be writable.
+     *
+     * @return The error message, or null if the checks pass.
+     */
+    private static String checkPlannedParents(List<PathNode> chain) {
+        PathNode parent = chain.get(0).parent;
+        for (PathNode node : chain) {
+            if (!node.exists()) {
+                parent = node.parent;
+                break;
+            }
+            if (!node.canExecute() && node != chain.get(chain.size() - 1)) {
+                return ERR_NO_PERM;
+            }
         }
+        return parent.canWrite() ? null : ERR_NO_PERM;
+    }
+
+    /**
+     * Applies the rules of {@link #checkPermissions} without the p flag to a trie chain: every ancestor must exist
+     * and be executable, and the direct parent must be writable.
+     *
+     * @return The error message, or null if the checks pass.
+     */
+    private static String checkPlannedAncestors(List<PathNode> chain) {
+        PathNode target = chain.get(chain.size() - 1);
+        for (PathNode node : chain) {
+            if (node == target) {
+                break;
+            }
+            if (!node.exists()) {
+                return ERR_TOP_LEVEL_MISSING;
+            }
+            if (!node.canExecute()) {
+                return ERR_NO_PERM;
+            }
+        }
+        return target.parent.canWrite() ? null : ERR_NO_PERM;
     }
 
     /**
@@ -183,4 +240,117 @@ public class MkdirApplication implements MkdirInterface {
         }
         return true;
     }
+
+    /**
+     * A directory in the prefix trie of the requested paths. Whether it exists and its permissions are read from
+     * the filesystem at most once; a directory planned by an earlier argument counts as existing and accessible.
+     */
+    private static final class PathNode {
+        private final Path path;
+        private final PathNode parent;
+        private final Map<String, PathNode> children = new HashMap<>();
+        private boolean isCreated;
+        private boolean hasPlanned;
+        private Boolean isExisting;
+        private Boolean isExecutable;
+        private Boolean isWritable;
+
+        private PathNode(Path path) {
+            this(path, null);
+        }
+
+        private PathNode(Path path, PathNode parent) {
+            this.path = path;
+            this.parent = parent;
+        }
+
+        /**
+         * Returns the nodes for each component of an absolute path, from the top level down to the path itself.
+         */
+        private List<PathNode> chain(Path absolutePath) {
+            List<PathNode> chain = new ArrayList<>();
+            PathNode node = this;
+            for (Path component : absolutePath) {
+                PathNode current = node;
+                node = current.children.computeIfAbsent(component.toString(),
+                        name -> new PathNode(current.path.resolve(name), current));
+                chain.add(node);
+            }
+            return chain;
+        }
+
+        /**
+         * Marks this directory to be created, and its ancestors as leading to a directory to be created.
+         */
+        private void plan() {
+            isCreated = true;
+            for (PathNode node = this; node != null && !node.hasPlanned; node = node.parent) {
+                node.hasPlanned = true;
+            }
+        }
+
+        private boolean exists() {
+            if (isCreated) {
+                return true;
+            }
+            if (isExisting == null) {
+                // below a missing directory nothing can exist
+                isExisting = (parent == null || parent.exists()) && path.toFile().exists();
+            }
+            return isExisting;
+        }
+
+        private boolean canExecute() {
+            if (isCreated) {
+                return true;
+            }
+            if (isExecutable == null) {
+                isExecutable = Files.isExecutable(path);
+            }
+            return isExecutable;
+        }
+
+        private boolean canWrite() {
+            if (isCreated) {
+                return true;
+            }
+            if (isWritable == null) {
+                isWritable = path.toFile().canWrite();
+            }
+            return isWritable;
+        }
+    }
+
+    /**
+     * Creates the planned directories under a trie node. A planned directory is created before its children, and
+     * the subtrees of siblings are created in parallel. As with {@link File#mkdir}, a directory that cannot be
+     * created is skipped silently, together with everything planned below it.
+     */
+    private static final class CreateTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final transient PathNode node;
+
+        private CreateTask(PathNode node) {
+            this.node = node;
+        }
+
+        @Override
+        protected void compute() {
+            if (node.isCreated) {
+                try {
+                    Files.createDirectory(node.path);
+                } catch (IOException e) {
+                    return;
+                }
+            }
+            List<CreateTask> tasks = new ArrayList<>();
+            for (PathNode child : node.children.values()) {
+                if (child.hasPlanned) {
+                    tasks.add(new CreateTask(child));
+                }
+            }
+            invokeAll(tasks);
+        }
+    }
 }
@@ -6,15 +6,50 @@ import sg.edu.nus.comp.cs4218.exception.AbstractApplicationException; // Import
 import sg.edu.nus.comp.cs4218.exception.MvException; // Import MvException class
 import sg.edu.nus.comp.cs4218.impl.parser.MvArgsParser;
 
-import java.io.File;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+import java.util.zip.CRC32C;
 import sg.edu.nus.comp.cs4218.app.MvInterface;
 import sg.edu.nus.comp.cs4218.impl.util.IOUtils;
 import sg.edu.nus.comp.cs4218.impl.util.StringUtils;
 
 public class MvApplication implements MvInterface { //NOPMD
+    public static final String ERR_CHECKSUM = "copy does not match the source, source kept";
+    public static final String ERR_SOURCE_CHANGED = "source changed during copy";
+
+    private static final int IO_THREADS = Math.max(2, Runtime.getRuntime().availableProcessors());
+    // each pool only waits on the pools after it, so that blocked tasks never wait on their own pool
+    private static final ExecutorService MOVE_POOL = newIoPool("mv-move");
+    private static final ExecutorService FILE_POOL = newIoPool("mv-file");
+    private static final ExecutorService REGION_POOL = newIoPool("mv-region");
+    private static final long PARALLEL_COPY_THRESHOLD = 16L << 20;
+    private static final long REGION_SIZE = 8L << 20;
+    private static final int CHECKSUM_BUFFER_SIZE = 64 * 1024;
+    private static final int PARALLEL_CHECK_THRESHOLD = 256;
+    private static final int LIST_RATIO = 4;
+    private static final String TEMP_SUFFIX = ".mv-";
+    private static final AtomicLong TEMP_COUNTER = new AtomicLong();
+
     /**
      * renames the file named by the source operand to the destination path named by
      * the target operand
@@ -27,6 +62,21 @@ public class MvApplication implements MvInterface { //NOPMD
     @Override
     public String mvSrcFileToDestFile(Boolean isOverwrite, String srcFile, String destFile)
             throws AbstractApplicationException {
+        return mvSrcFileToDestFile(isOverwrite, false, srcFile, destFile);
+    }
+
+    /**
+     * renames the file named by the source operand to the destination path named by
+     * the target operand, copying it if the destination is on another filesystem
+     *
+     * @param isOverwrite Boolean option to perform overwriting
+     * @param isVerify    Boolean option to compare a copy with its source before the source is deleted
+     * @param srcFile     of path to source file
+     * @param destFile    of path to destination file
+     * @throws AbstractApplicationException
+     */
+    public String mvSrcFileToDestFile(Boolean isOverwrite, Boolean isVerify, String srcFile, String destFile)
+            throws AbstractApplicationException {
         try {
             Path sourcePath = IOUtils.resolveFilePath(srcFile);
             Path destinationPath = IOUtils.resolveFilePath(destFile);
@@ -45,7 +95,7 @@ public class MvApplication implements MvInterface { //NOPMD
             }
             // do we need if same folder?
 
-            Files.move(sourcePath, destinationPath, StandardCopyOption.REPLACE_EXISTING);
+            moveEntry(sourcePath, destinationPath, isSameStore(sourcePath, destinationPath), isVerify);
 
             // check if should remove cause not in implementation, but good for feedback
             return String.format("File moved successfully to %s", destFile);
@@ -69,14 +119,43 @@ public class MvApplication implements MvInterface { //NOPMD
     @Override
     public String mvFilesToFolder(Boolean isOverwrite, String destFolder, String... fileNames)//NOPMD
             throws AbstractApplicationException {
+        return mvFilesToFolder(isOverwrite, false, destFolder, fileNames);
+    }
+
+    /**
+     * move files to destination folder. The files are checked one by one and then moved concurrently
+     *
+     * @param isOverwrite Boolean option to perform overwriting
+     * @param isVerify    Boolean option to compare a copy with its source before the source is deleted
+     * @param destFolder  of path to destination folder
+     * @param fileNames   Array of String of file names
+     * @throws AbstractApplicationException
+     */
+    public String mvFilesToFolder(Boolean isOverwrite, Boolean isVerify, String destFolder,//NOPMD
+                                  String... fileNames) throws AbstractApplicationException {
         try {
             StringBuilder sameFolderErrors = new StringBuilder();
             if (fileNames.length == 0) {
                 throw new MvException(ERR_NO_ARGS);
             }
-            for (String fileName : fileNames) {
-                Path sourcePath = IOUtils.resolveFilePath(fileName);
-                Path destinationPath = Paths.get(IOUtils.resolveFilePath(destFolder).normalize().toString(), sourcePath.getFileName().toString());
+            Path destDirectory = IOUtils.resolveFilePath(destFolder).normalize();
+            Path[] sourcePaths = new Path[fileNames.length];
+            for (int i = 0; i < fileNames.length; i++) {
+                sourcePaths[i] = IOUtils.resolveFilePath(fileNames[i]);
+            }
+            boolean[] isExisting = checkExist(sourcePaths);
+            Set<String> existingNames = isOverwrite ? Collections.emptySet() : findExistingNames(destDirectory,
+                    sourcePaths);
+            Set<Path> plannedSources = new HashSet<>();
+            Set<Path> plannedAncestors = new HashSet<>();
+            boolean isNested = false;
+            List<Path[]> plan = new ArrayList<>();
+            Set<Path> plannedDestinations = new HashSet<>();
+            for (int i = 0; i < sourcePaths.length; i++) {
+                Path sourcePath = sourcePaths[i];
+                Path sourceKey = sourcePath.toAbsolutePath().normalize();
+                String name = sourcePath.getFileName().toString();
+                Path destinationPath = Paths.get(destDirectory.toString(), name);
                 // if src files invalid throw exception, but shift if they are not in the same folder -> need to handle this separately
                 if (isSameFolder(sourcePath, destinationPath)) {
                     sameFolderErrors.append(sourcePath);
@@ -90,7 +169,9 @@ public class MvApplication implements MvInterface { //NOPMD
                     continue;
                 }
 
-                if (!sourcePath.toFile().exists()) {
+                // a file given twice, or inside a directory moved before it, no longer exists by the time its move
+                // would run
+                if (!isExisting[i] || hasPlannedAncestorOrSelf(sourceKey, plannedSources)) {
                     sameFolderErrors.append(sourcePath);
                     sameFolderErrors.append(": ");
                     sameFolderErrors.append(ERR_FILE_NOT_FOUND);
@@ -100,13 +181,22 @@ public class MvApplication implements MvInterface { //NOPMD
                     continue;
                 }
 
-                if (!isOverwrite && destinationPath.toFile().exists()) {
+                // without overwrite, a name taken by an earlier source in this batch also counts as existing
+                if (!isOverwrite && (existingNames.contains(name) || plannedDestinations.contains(destinationPath))) {
                     continue;
                 }
                 // is overwrite (okay)
                 // is not overwrite and dest path does not exist (create a new file there)
-                Files.move(sourcePath, destinationPath, StandardCopyOption.REPLACE_EXISTING);
+                // a directory given after a file inside it must only be moved once that file has been
+                isNested |= plannedAncestors.contains(sourceKey);
+                plannedSources.add(sourceKey);
+                for (Path ancestor = sourceKey.getParent(); ancestor != null; ancestor = ancestor.getParent()) {
+                    plannedAncestors.add(ancestor);
+                }
+                plannedDestinations.add(destinationPath);
+                plan.add(new Path[]{sourcePath, destinationPath});
             }
+            runPlan(plan, isNested, isVerify);
             if (sameFolderErrors.length() > 0) {
                 sameFolderErrors.delete(sameFolderErrors.length() - 5, sameFolderErrors.length());
                 throw new MvException(sameFolderErrors.toString());
@@ -152,28 +242,32 @@ public class MvApplication implements MvInterface { //NOPMD
             }
             String destFolder = mvArgsParser.getDestFolder();
             Boolean isOverwrite = mvArgsParser.isOverwrite();
+            Boolean isVerify = mvArgsParser.isVerify();
 
 
-            // use IOUTILS.resolvefilepath
-            File fileToCheck = IOUtils.resolveFilePath(destFolder).toFile();
+            // use IOUTILS.resolvefilepath, and stat the destination once
+            Path pathToCheck = IOUtils.resolveFilePath(destFolder);
+            BasicFileAttributes destAttributes = readAttributes(pathToCheck);
+            boolean isDestExisting = destAttributes != null;
+            boolean isDestDirectory = isDestExisting && destAttributes.isDirectory();
             // check if dest exists, then is writable then is overwritten
-            if (fileToCheck.exists() && !fileToCheck.canWrite() && isOverwrite) {
+            if (isDestExisting && isOverwrite && !Files.isWritable(pathToCheck)) {
                 throw new MvException(ERR_NO_PERM);
             }
             // if it's meant to be a directory but does not exist and no overwrite
-            if (!fileToCheck.exists() && !isOverwrite && filesToMove.length > 1) {
+            if (!isDestExisting && !isOverwrite && filesToMove.length > 1) {
                 throw new MvException(ERR_FILE_NOT_FOUND);
             }
             // check if folder is a valid directory
-            if (filesToMove.length > 1 && !fileToCheck.isDirectory()) {
+            if (filesToMove.length > 1 && !isDestDirectory) {
                 throw new MvException(ERR_IS_NOT_DIR);
             }
 
             // check if file is a directory
-            if (fileToCheck.isDirectory()) {
-                mvFilesToFolder(isOverwrite, destFolder, filesToMove);
+            if (isDestDirectory) {
+                mvFilesToFolder(isOverwrite, isVerify, destFolder, filesToMove);
             } else {
-                mvSrcFileToDestFile(isOverwrite, filesToMove[0], destFolder);
+                mvSrcFileToDestFile(isOverwrite, isVerify, filesToMove[0], destFolder);
             }
         } catch (MvException e) {
             throw e;
@@ -183,6 +277,464 @@ public class MvApplication implements MvInterface { //NOPMD
             throw mvException;
         } 
     }
+    /**
+     * Creates a bounded pool of daemon threads for blocking file I/O, kept apart from the common pool that the
+     * parallel streams of other applications run on.
+     */
+    private static ExecutorService newIoPool(String name) {
+        AtomicLong count = new AtomicLong();
+        return Executors.newFixedThreadPool(IO_THREADS, runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Reads the attributes of a path, following links, or returns null if it does not exist.
+     */
+    private static BasicFileAttributes readAttributes(Path path) {
+        try {
+            return Files.readAttributes(path, BasicFileAttributes.class);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Checks which paths exist, in parallel for large batches.
+     */
+    private static boolean[] checkExist(Path... paths) {
+        boolean[] isExisting = new boolean[paths.length];
+        IntStream indices = IntStream.range(0, paths.length);
+        if (paths.length >= PARALLEL_CHECK_THRESHOLD) {
+            indices = indices.parallel();
+        }
+        indices.forEach(i -> isExisting[i] = paths[i].toFile().exists());
+        return isExisting;
+    }
+
+    private static boolean hasPlannedAncestorOrSelf(Path source, Set<Path> plannedSources) {
+        for (Path path = source; path != null; path = path.getParent()) {
+            if (plannedSources.contains(path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Finds which of the names of the sources are taken in the destination directory. For a large batch the
+     * directory is listed, names only, as long as it holds no more than {@link #LIST_RATIO} names per source;
+     * otherwise, and for small batches, each name is checked with one stat.
+     */
+    private static Set<String> findExistingNames(Path directory, Path... sources) {
+        Set<String> names = new HashSet<>();
+        for (Path source : sources) {
+            names.add(source.getFileName().toString());
+        }
+        if (sources.length >= PARALLEL_CHECK_THRESHOLD) {
+            Set<String> listed = listNames(directory, (long) LIST_RATIO * sources.length);
+            if (listed != null) {
+                listed.retainAll(names);
+                return listed;
+            }
+        }
+        String[] candidates = names.toArray(new String[0]);
+        Path[] destinations = new Path[candidates.length];
+        for (int i = 0; i < candidates.length; i++) {
+            destinations[i] = directory.resolve(candidates[i]);
+        }
+        boolean[] isExisting = checkExist(destinations);
+        Set<String> existing = new HashSet<>();
+        for (int i = 0; i < candidates.length; i++) {
+            if (isExisting[i]) {
+                existing.add(candidates[i]);
+            }
+        }
+        return existing;
+    }
+
+    /**
+     * Returns the names of the entries in a directory, or null if it holds more than the limit or cannot be
+     * listed.
+     */
+    private static Set<String> listNames(Path directory, long limit) {
+        Set<String> names = new HashSet<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+            for (Path path : stream) {
+                if (names.size() >= limit) {
+                    return null;
+                }
+                names.add(path.getFileName().toString());
+            }
+        } catch (IOException | DirectoryIteratorException e) {
+            return null;
+        }
+        return names;
+    }
+
+    /**
+     * Runs planned moves concurrently. Sources sharing a destination are moved one after another in argument
+     * order, as a sequential mv would. If a directory is moved after a source inside it, every move is run in
+     * argument order instead, so that the inner source has left the directory before it is moved. Whether a
+     * rename is possible is decided once per source directory. Every move is attempted; the first failure in
+     * argument order is then reported.
+     *
+     * @param plan     Pairs of source and destination, in argument order.
+     * @param isNested If true, some source lies inside a later one, and the moves are run sequentially.
+     * @param isVerify If true, copies are compared with their sources before the sources are deleted.
+     */
+    private static void runPlan(List<Path[]> plan, boolean isNested, boolean isVerify) throws IOException {
+        Map<Path, Boolean> isSameStoreByParent = new HashMap<>();
+        Map<Path, List<Path>> groups = new LinkedHashMap<>();
+        Map<Path, List<Boolean>> renames = new HashMap<>();
+        IOException failure = null;
+        for (Path[] move : plan) {
+            Path source = move[0];
+            Path destination = move[1];
+            Path parent = source.toAbsolutePath().getParent();
+            Boolean isSame = isSameStoreByParent.get(parent);
+            if (isSame == null) {
+                isSame = isSameStore(source, destination);
+                isSameStoreByParent.put(parent, isSame);
+            }
+            if (isNested) {
+                try {
+                    moveEntry(source, destination, isSame, isVerify);
+                } catch (IOException e) {
+                    if (failure == null) {
+                        failure = e;
+                    } else {
+                        failure.addSuppressed(e);
+                    }
+                }
+                continue;
+            }
+            groups.computeIfAbsent(destination, key -> new ArrayList<>()).add(source);
+            renames.computeIfAbsent(destination, key -> new ArrayList<>()).add(isSame);
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        if (groups.size() == 1) {
+            Map.Entry<Path, List<Path>> entry = groups.entrySet().iterator().next();
+            moveGroup(entry.getValue(), entry.getKey(), renames.get(entry.getKey()), isVerify);
+            return;
+        }
+        List<Future<?>> moves = new ArrayList<>();
+        for (Map.Entry<Path, List<Path>> entry : groups.entrySet()) {
+            Path destination = entry.getKey();
+            List<Path> sources = entry.getValue();
+            List<Boolean> isRename = renames.get(destination);
+            moves.add(MOVE_POOL.submit(() -> {
+                moveGroup(sources, destination, isRename, isVerify);
+                return null;
+            }));
+        }
+        awaitAll(moves);
+    }
+
+    private static void moveGroup(List<Path> sources, Path destination, List<Boolean> isRename, boolean isVerify)
+            throws IOException {
+        for (int i = 0; i < sources.size(); i++) {
+            moveEntry(sources.get(i), destination, isRename.get(i), isVerify);
+        }
+    }
+
+    /**
+     * Moves a file or directory. Within one filesystem this is a rename; across filesystems the entry is copied
+     * and the source deleted once the copy is complete.
+     */
+    private static void moveEntry(Path source, Path destination, boolean isRename, boolean isVerify)
+            throws IOException {
+        if (isRename) {
+            Files.move(source, destination, StandardCopyOption.REPLACE_EXISTING);
+        } else {
+            moveAcrossStores(source, destination, isVerify);
+        }
+    }
+
+    /**
+     * Returns true if the directories holding the source and the destination are on the same filesystem, so that
+     * the move can be done as a rename.
+     */
+    private static boolean isSameStore(Path source, Path destination) throws IOException {
+        Path sourceParent = source.toAbsolutePath().getParent();
+        Path existing = destination.toAbsolutePath().getParent();
+        while (existing != null && !Files.exists(existing)) {
+            existing = existing.getParent();
+        }
+        if (sourceParent == null || existing == null) {
+            return true;
+        }
+        return Files.getFileStore(sourceParent).equals(Files.getFileStore(existing));
+    }
+
+    /**
+     * Moves an entry to another filesystem. A regular file is copied to a temporary file next to the destination
+     * and renamed over it; a directory tree is copied with its files in parallel, and removed from the destination
+     * again if any part of the copy fails. Every copied file, and every directory the copy was linked into, is
+     * forced to the storage device before the source is deleted, so that a crash cannot lose both.
+     * <p>
+     * Verification compares each copy, once forced, with its source through region checksums. It reads the copy
+     * back through the operating system, which may serve it from the page cache, so it detects a source that
+     * changed during the copy and data corrupted on the way to the destination, but not a device that fails to
+     * store what it acknowledged.
+     *
+     * @param source      The file or directory to move.
+     * @param destination The path to move it to.
+     * @param isVerify    If true, every copied file is compared with its source through region checksums.
+     * @throws IOException If the copy or the verification fails, in which case the source is kept.
+     */
+    protected static void moveAcrossStores(Path source, Path destination, boolean isVerify) throws IOException {
+        if (Files.isDirectory(source, LinkOption.NOFOLLOW_LINKS)) {
+            if (Files.isDirectory(destination, LinkOption.NOFOLLOW_LINKS)) {
+                // replaced only if empty, as by Files.move
+                Files.delete(destination);
+            } else {
+                Files.deleteIfExists(destination);
+            }
+            try {
+                copyTree(source, destination, isVerify);
+                forceDirectory(destination.toAbsolutePath().getParent());
+            } catch (IOException e) {
+                deleteTree(destination);
+                throw e;
+            }
+            deleteTree(source);
+        } else if (Files.isRegularFile(source, LinkOption.NOFOLLOW_LINKS)) {
+            Path temp = destination.resolveSibling("." + destination.getFileName() + TEMP_SUFFIX
+                    + ProcessHandle.current().pid() + "-" + TEMP_COUNTER.incrementAndGet());
+            try {
+                copyFile(source, temp, isVerify);
+                Files.move(temp, destination, StandardCopyOption.ATOMIC_MOVE);
+                forceDirectory(destination.toAbsolutePath().getParent());
+            } catch (IOException e) {
+                Files.deleteIfExists(temp);
+                throw e;
+            }
+            Files.delete(source);
+        } else {
+            Files.move(source, destination, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Copies a directory tree, submitting regular files to the pool as they are found. Directory permissions and
+     * times are applied last, deepest first, so that read-only directories can still be filled, just after each
+     * copied directory is forced. If the walk fails, copies that also fail are added to its exception as suppressed.
+     */
+    private static void copyTree(Path source, Path destination, boolean isVerify) throws IOException {
+        List<Future<?>> copies = new ArrayList<>();
+        List<Path> directories = new ArrayList<>();
+        try {
+            Files.walkFileTree(source, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                    Files.createDirectory(destination.resolve(source.relativize(dir).toString()));
+                    directories.add(dir);
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                    Path target = destination.resolve(source.relativize(file).toString());
+                    if (attrs.isRegularFile()) {
+                        copies.add(FILE_POOL.submit(() -> {
+                            copyFile(file, target, isVerify);
+                            return null;
+                        }));
+                    } else {
+                        Files.copy(file, target, LinkOption.NOFOLLOW_LINKS, StandardCopyOption.COPY_ATTRIBUTES);
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            try {
+                awaitAll(copies);
+            } catch (IOException copyFailure) {
+                e.addSuppressed(copyFailure);
+            }
+            throw e;
+        }
+        awaitAll(copies);
+        for (int i = directories.size() - 1; i >= 0; i--) {
+            Path dir = directories.get(i);
+            Path copy = destination.resolve(source.relativize(dir).toString());
+            // forced first, as the permissions of the source may not allow the copy to be opened
+            forceDirectory(copy);
+            copyAttributes(dir, copy);
+        }
+    }
+
+    /**
+     * Copies a regular file with {@link FileChannel#transferTo}. Files of at least
+     * {@link #PARALLEL_COPY_THRESHOLD} bytes are split into regions of {@link #REGION_SIZE} bytes that are
+     * transferred in parallel, each through its own channel to the target. The copy is given the attributes of
+     * the source and forced to the storage device before it is verified.
+     */
+    private static void copyFile(Path source, Path target, boolean isVerify) throws IOException {
+        try (FileChannel input = FileChannel.open(source, StandardOpenOption.READ);
+             FileChannel output = FileChannel.open(target, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                     StandardOpenOption.WRITE)) {
+            long size = input.size();
+            if (size < PARALLEL_COPY_THRESHOLD) {
+                transferRegion(input, output, 0, size);
+            } else {
+                List<Future<?>> regions = new ArrayList<>();
+                for (long start = 0; start < size; start += REGION_SIZE) {
+                    long position = start;
+                    long count = Math.min(REGION_SIZE, size - start);
+                    regions.add(REGION_POOL.submit(() -> {
+                        try (FileChannel regionOutput = FileChannel.open(target, StandardOpenOption.WRITE)) {
+                            regionOutput.position(position);
+                            transferRegion(input, regionOutput, position, count);
+                        }
+                        return null;
+                    }));
+                }
+                awaitAll(regions);
+            }
+            copyAttributes(source, target);
+            output.force(true);
+            if (isVerify && !isSameContent(input, output, size)) {
+                throw new IOException(source + ": " + ERR_CHECKSUM);
+            }
+        }
+    }
+
+    /**
+     * Forces the entries of a directory to the storage device, so that files renamed or created in it persist.
+     */
+    private static void forceDirectory(Path directory) throws IOException {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        }
+    }
+
+    private static void transferRegion(FileChannel input, FileChannel output, long position, long count)
+            throws IOException {
+        long done = 0;
+        while (done < count) {
+            long transferred = input.transferTo(position + done, count - done, output);
+            if (transferred <= 0 && position + done >= input.size()) {
+                throw new IOException(ERR_SOURCE_CHANGED);
+            }
+            done += transferred;
+        }
+    }
+
+    /**
+     * Compares a copy with its source by CRC32C checksums over regions of {@link #REGION_SIZE} bytes, computed in
+     * parallel for large files.
+     */
+    private static boolean isSameContent(FileChannel source, FileChannel copy, long size) throws IOException {
+        if (copy.size() != size) {
+            return false;
+        }
+        if (size < PARALLEL_COPY_THRESHOLD) {
+            return checksum(source, 0, size) == checksum(copy, 0, size);
+        }
+        List<Future<Boolean>> regions = new ArrayList<>();
+        for (long start = 0; start < size; start += REGION_SIZE) {
+            long position = start;
+            long count = Math.min(REGION_SIZE, size - start);
+            regions.add(REGION_POOL.submit(
+                    () -> checksum(source, position, count) == checksum(copy, position, count)));
+        }
+        boolean isSame = true;
+        for (Future<Boolean> region : regions) {
+            isSame &= await(region);
+        }
+        return isSame;
+    }
+
+    private static long checksum(FileChannel channel, long position, long count) throws IOException {
+        CRC32C crc = new CRC32C();
+        ByteBuffer buffer = ByteBuffer.allocate(CHECKSUM_BUFFER_SIZE);
+        long done = 0;
+        while (done < count) {
+            buffer.clear();
+            buffer.limit((int) Math.min(buffer.capacity(), count - done));
+            int read = channel.read(buffer, position + done);
+            if (read < 0) {
+                break;
+            }
+            buffer.flip();
+            crc.update(buffer);
+            done += read;
+        }
+        return crc.getValue();
+    }
+
+    private static void copyAttributes(Path source, Path target) throws IOException {
+        PosixFileAttributeView view = Files.getFileAttributeView(target, PosixFileAttributeView.class,
+                LinkOption.NOFOLLOW_LINKS);
+        if (view != null) {
+            view.setPermissions(Files.getPosixFilePermissions(source, LinkOption.NOFOLLOW_LINKS));
+        }
+        Files.setLastModifiedTime(target, Files.getLastModifiedTime(source, LinkOption.NOFOLLOW_LINKS));
+    }
+
+    private static void deleteTree(Path root) throws IOException {
+        if (!Files.exists(root, LinkOption.NOFOLLOW_LINKS)) {
+            return;
+        }
+        Files.walkFileTree(root, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                Files.delete(file);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOException {
+                if (exc != null) {
+                    throw exc;
+                }
+                Files.delete(dir);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    /**
+     * Waits for every task, then rethrows the first failure among them, with any later ones suppressed.
+     */
+    private static void awaitAll(List<Future<?>> tasks) throws IOException {
+        IOException failure = null;
+        for (Future<?> task : tasks) {
+            try {
+                await(task);
+            } catch (IOException e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private static <T> T await(Future<T> task) throws IOException {
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+
     // write a function to check if file is in folder
     private static boolean isSameFolder(Path sourcePath, Path destinationPath) {
 //        String sourcePathStr = sourcePath.getParent();
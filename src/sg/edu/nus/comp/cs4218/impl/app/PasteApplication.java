@@ -2,20 +2,20 @@ package sg.edu.nus.comp.cs4218.impl.app;
 
 import sg.edu.nus.comp.cs4218.app.PasteInterface;
 import sg.edu.nus.comp.cs4218.exception.PasteException;
-import sg.edu.nus.comp.cs4218.exception.TeeException;
+import sg.edu.nus.comp.cs4218.exception.ShellException;
 import sg.edu.nus.comp.cs4218.impl.parser.PasteArgsParser;
 import sg.edu.nus.comp.cs4218.impl.util.IOUtils;
 
 import java.io.*;
 import java.nio.file.Path;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 
 import static sg.edu.nus.comp.cs4218.impl.util.ErrorConstants.*;
 import static sg.edu.nus.comp.cs4218.impl.util.StringUtils.STRING_NEWLINE;
-import static sg.edu.nus.comp.cs4218.impl.util.StringUtils.CHAR_TAB;
+import static sg.edu.nus.comp.cs4218.impl.util.StringUtils.STRING_STDIN_DASH;
 
 public class PasteApplication implements PasteInterface { //NOPMD
 
@@ -23,7 +23,7 @@ public class PasteApplication implements PasteInterface { //NOPMD
      * Runs application with specified input data and specified output stream.
      */
     public void run(String[] args, InputStream stdin, OutputStream stdout) throws PasteException { //NOPMD
-        // Format: paste [-s] [FILE]...
+        // Format: paste [-s] [-d LIST] [FILE]...
 
         if (args == null) {
             throw new PasteException(ERR_NULL_ARGS);
@@ -36,7 +36,6 @@ public class PasteApplication implements PasteInterface { //NOPMD
         PasteArgsParser pasteArgsParser = new PasteArgsParser();
 
         try {
-            String results = "";
             pasteArgsParser.parse(args);
             boolean isSerial = pasteArgsParser.isSerial();
 
@@ -61,35 +60,16 @@ public class PasteApplication implements PasteInterface { //NOPMD
                         workingFiles.add(file);
                     }
                 }
-            }
-
-            if (pasteArgsParser.getFileNames().isEmpty()) {
-                // Means using stdin to parse
-                results = mergeStdin(isSerial, stdin);
             } else {
-                // Check if have dash
-                if (pasteArgsParser.getFileNames().contains("-")) {
-                    if (isSerial) {
-                        results = mergeFileAndStdin(true, stdin, workingFiles.toArray(new String[0]));
-                    } else {
-                        results = mergeFileAndStdin(false, stdin,
-                                pasteArgsParser.getFileNames().toArray(new String[0]));
-                    }
-                } else {
-                    if (isSerial) {
-                        results = mergeFile(isSerial, workingFiles.toArray(new String[0]));
-                    } else {
-                        results = mergeFile(isSerial, pasteArgsParser.getFileNames().toArray(new String[0]));
-                    }
-                }
+                workingFiles.addAll(fileNames);
             }
 
-            // Add newline to end of output if not empty
-            if (!results.isEmpty()) {
-                results += STRING_NEWLINE;
-            }
-
-            stdout.write(results.getBytes());
+            // Output is written to stdout as it is read, using stdin if no files are given
+            String[] inputs = fileNames.isEmpty()
+                    ? new String[]{STRING_STDIN_DASH}
+                    : workingFiles.toArray(new String[0]);
+            pasteToStream(isSerial, pasteArgsParser.getDelimiters(), pasteArgsParser.isReadAhead(), stdin, stdout,
+                    inputs);
 
             if (isSerial) {
                 StringBuilder stringB = new StringBuilder();
@@ -143,22 +123,7 @@ public class PasteApplication implements PasteInterface { //NOPMD
         if (stdin == null) {
             throw new PasteException(ERR_NULL_STREAMS);
         }
-        List<String> input;
-
-        try {
-            input = IOUtils.getLinesFromInputStream(stdin);
-        } catch (Exception e) {
-            PasteException pasteException = new PasteException(e.getMessage());
-            pasteException.initCause(e);
-            throw pasteException;
-        }
-
-        if (isSerial) {
-            // Return tabbed string
-            return String.join("\t", input);
-        } else {
-            return String.join(STRING_NEWLINE, input);
-        }
+        return pasteToString(isSerial, stdin, STRING_STDIN_DASH);
     };
 
     /**
@@ -180,77 +145,7 @@ public class PasteApplication implements PasteInterface { //NOPMD
             return "";
         }
 
-        for (String file : fileName) {
-            Path resolvedPath = IOUtils.resolveFilePath(file);
-            File fileToRead = resolvedPath.toFile();
-
-            if (!fileToRead.exists()) {
-                throw new PasteException(file + ": " + ERR_FILE_NOT_FOUND);
-            }
-
-            if (fileToRead.isDirectory()) {
-                throw new PasteException(file + ": " + ERR_IS_DIR);
-            }
-
-            if (!fileToRead.canRead()) {
-                throw new PasteException(file + ": " + ERR_NO_PERM);
-            }
-
-        }
-
-        StringBuilder strBuilder = new StringBuilder();
-        if (isSerial) {
-            for (String file : fileName) {
-                try {
-                    InputStream inputStream = IOUtils.openInputStream(file); //NOPMD
-                    List<String> lines = IOUtils.getLinesFromInputStream(inputStream);
-                    if (strBuilder.length() > 0) {
-                        strBuilder.append(STRING_NEWLINE);
-                    }
-                    strBuilder.append(String.join(CHAR_TAB + "", lines));
-                    IOUtils.closeInputStream(inputStream);
-                } catch (Exception e) {
-                    PasteException pasteException = new PasteException(e.getMessage());
-                    pasteException.initCause(e);
-                    throw pasteException;
-                }
-            }
-        } else {
-            // NON SERIAL
-            int maxLines = 0;
-            List<List<String>> fileLines = new ArrayList<>();
-            for (String file : fileName) {
-                try {
-                    InputStream inputStream = IOUtils.openInputStream(file); //NOPMD
-                    List<String> lines = IOUtils.getLinesFromInputStream(inputStream);
-                    fileLines.add(lines);
-                    if (lines.size() > maxLines) {
-                        maxLines = lines.size();
-                    }
-                    IOUtils.closeInputStream(inputStream);
-                } catch (Exception e) {
-                    PasteException pasteException = new PasteException(e.getMessage());
-                    pasteException.initCause(e);
-                    throw pasteException;
-                }
-            }
-
-            for (int lineIndex = 0; lineIndex < maxLines; lineIndex++) {
-                for (int fileIndex = 0; fileIndex < fileLines.size(); fileIndex++) {
-                    if (fileIndex > 0) {
-                        strBuilder.append(CHAR_TAB);
-                    }
-                    List<String> currentFileLines = fileLines.get(fileIndex);
-                    String currentLine = currentFileLines.size() > lineIndex ? currentFileLines.get(lineIndex) : "";
-                    strBuilder.append(currentLine);
-                }
-                if (lineIndex < maxLines - 1) {
-                    strBuilder.append(STRING_NEWLINE);
-                }
-            }
-        }
-        return strBuilder.toString();
-
+        return pasteToString(isSerial, null, fileName);
     };
 
     /**
@@ -268,117 +163,268 @@ public class PasteApplication implements PasteInterface { //NOPMD
             throw new PasteException(ERR_NULL_STREAMS);
         }
 
-        List<BufferedReader> fileReaders = new ArrayList<>();
-        StringBuilder resultBuilder = new StringBuilder();
+        return pasteToString(isSerial, stdin, fileName);
+    };
 
-        BufferedReader stdinBRuffRdr = new BufferedReader(new InputStreamReader(stdin));
+    /**
+     * Pastes the inputs with tab delimiters and returns the output without the final newline.
+     */
+    private String pasteToString(boolean isSerial, InputStream stdin, String... fileNames) throws PasteException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        pasteToStream(isSerial, PasteArgsParser.DEFAULT_DELIMITERS, false, stdin, output, fileNames);
+        String result = output.toString();
+        return result.endsWith(STRING_NEWLINE)
+                ? result.substring(0, result.length() - STRING_NEWLINE.length())
+                : result;
+    }
 
-        for (String file : fileName) {
-            if ("-".equals(file)) {
-                fileReaders.add(stdinBRuffRdr);
-            } else {
-                Path resolvedPath = IOUtils.resolveFilePath(file);
-                File fileToRead = resolvedPath.toFile();
+    /**
+     * Pastes the inputs and writes the output to the output stream as it is read. Every "-" shares a single
+     * reader over stdin, so each takes the next line of stdin in turn.
+     * <p>
+     * In parallel mode, a row is written as soon as one line has been read from every input, and rows are
+     * written until every input is exhausted, with exhausted inputs contributing empty columns. The delimiters
+     * are used in turn between columns, starting again from the first on each row.
+     * <p>
+     * In serial mode, the lines of each input are written as one row, as they are read. The delimiters are used
+     * in turn between lines, starting again from the first for each input. An input with no lines gives an empty row once an earlier
+     * input has given one, so that the rows of the other inputs keep their places; stdin named again after it is
+     * exhausted gives no row.
+     *
+     * @param isSerial    Paste one file at a time instead of in parallel
+     * @param delimiters  Delimiters to cycle through, each either a single character or empty
+     * @param isReadAhead Read each file on its own thread in parallel mode, ahead of the output. Stdin is always
+     *                    read on the calling thread, since a thread blocked reading the shell's stdin cannot be
+     *                    stopped and would keep taking input after paste returns
+     * @param stdin       InputStream read for every "-" in fileNames, or null if "-" names a file
+     * @param stdout      OutputStream to write the output to
+     * @param fileNames   Array of file names to be read and merged
+     * @throws PasteException If a file does not exist, is a directory or is unreadable, or reading fails
+     */
+    protected void pasteToStream(boolean isSerial, String[] delimiters, boolean isReadAhead,//NOPMD
+                                 InputStream stdin, OutputStream stdout, String... fileNames) throws PasteException {
+        for (String file : fileNames) {
+            if (stdin == null || !STRING_STDIN_DASH.equals(file)) {
+                validateFile(file);
+            }
+        }
 
-                if (!fileToRead.exists()) {
-                    throw new PasteException(file + ": " + ERR_FILE_NOT_FOUND);
+        // Reading ahead only helps when inputs are read side by side
+        boolean isSourceReadAhead = isReadAhead && !isSerial;
+        List<Closeable> openInputs = new ArrayList<>();
+        try {
+            LineSource[] sources = new LineSource[fileNames.length];
+            LineSource stdinSource = null;
+            for (int i = 0; i < fileNames.length; i++) {
+                if (stdin != null && STRING_STDIN_DASH.equals(fileNames[i])) {
+                    if (stdinSource == null) {
+                        stdinSource = openSource(new InputStreamReader(stdin), false, openInputs);
+                    }
+                    sources[i] = stdinSource;
+                } else if (!isSerial) {
+                    BufferedReader reader = new BufferedReader(new InputStreamReader(//NOPMD
+                            IOUtils.openInputStream(fileNames[i])));
+                    openInputs.add(reader);
+                    sources[i] = openSource(reader, isSourceReadAhead, openInputs);
                 }
+            }
 
-                if (fileToRead.isDirectory()) {
-                    throw new PasteException(file + ": " + ERR_IS_DIR);
-                }
+            Writer writer = new BufferedWriter(new OutputStreamWriter(stdout));
+            if (isSerial) {
+                writeSerial(sources, delimiters, writer, fileNames);
+            } else {
+                writeRows(sources, delimiters, writer);
+            }
+            writer.flush();
+        } catch (Exception e) {
+            PasteException pasteException = new PasteException(e.getMessage());
+            pasteException.initCause(e);
+            throw pasteException;
+        } finally {
+            closeInputs(openInputs);
+        }
+    }
 
-                if (!fileToRead.canRead()) {
-                    throw new PasteException(file + ": " + ERR_NO_PERM);
-                }
+    private void validateFile(String file) throws PasteException {
+        File fileToRead = IOUtils.resolveFilePath(file).toFile();
 
-                try {
-                    fileReaders.add(new BufferedReader(new InputStreamReader(IOUtils.openInputStream(file))));
-                } catch (Exception e) {
-                    PasteException pasteException = new PasteException(e.getMessage());
-                    pasteException.initCause(e);
-                    throw pasteException;
-                }
-            }
+        if (!fileToRead.exists()) {
+            throw new PasteException(file + ": " + ERR_FILE_NOT_FOUND);
         }
 
-        if (isSerial) {
-            for (BufferedReader reader : fileReaders) {//NOPMD
-                try {
-                    String line;
-                    while ((line = reader.readLine()) != null) {
-                        resultBuilder.append(line);
-                        resultBuilder.append(CHAR_TAB);
-                    }
-                    // Remove last tab
-                    resultBuilder.deleteCharAt(resultBuilder.length() - 1);
-                    // Append new line except for the last file
-                    if (fileReaders.indexOf(reader) < fileReaders.size() - 1) {
-                        resultBuilder.append(STRING_NEWLINE);
-                    }
-                } catch (IOException e) {
-                    PasteException pasteException = new PasteException(e.getMessage());
-                    pasteException.initCause(e);
-                    throw pasteException;
-                }
+        if (fileToRead.isDirectory()) {
+            throw new PasteException(file + ": " + ERR_IS_DIR);
+        }
+
+        if (!fileToRead.canRead()) {
+            throw new PasteException(file + ": " + ERR_NO_PERM);
+        }
+    }
+
+    private LineSource openSource(Reader reader, boolean isReadAhead, List<Closeable> openInputs) {
+        BufferedReader bufferedReader = reader instanceof BufferedReader
+                ? (BufferedReader) reader
+                : new BufferedReader(reader);
+        if (!isReadAhead) {
+            return bufferedReader::readLine;
+        }
+        ReadAheadSource source = new ReadAheadSource(bufferedReader);
+        // Stop the read-ahead thread before its reader is closed
+        openInputs.add(0, source);
+        return source;
+    }
+
+    private void writeRows(LineSource[] columns, String[] delimiters, Writer writer) throws IOException {
+        String[] row = new String[columns.length];
+        while (true) {
+            boolean hasLine = false;
+            for (int i = 0; i < columns.length; i++) {
+                row[i] = columns[i].nextLine();
+                hasLine = hasLine || row[i] != null;
             }
-        } else {
-            // NON SERIAL
-            // While there is line
-            boolean isAllFileRead = false;
-            while (!isAllFileRead) {
-                isAllFileRead = true;
-                StringBuilder lineBuilder = new StringBuilder();
-                for (BufferedReader reader : fileReaders) {//NOPMD
-                    try {
-                        String line = reader.readLine();
-                        if (line != null) {
-                            isAllFileRead = false;
-                            lineBuilder.append(line);
-                            lineBuilder.append(CHAR_TAB);
-                        } else {
-                            lineBuilder.append(CHAR_TAB);
-                        }
-                    } catch (IOException e) {
-                        PasteException pasteException = new PasteException(e.getMessage());
-                        pasteException.initCause(e);
-                        throw pasteException;
-                    }
+            if (!hasLine) {
+                break;
+            }
+            for (int i = 0; i < row.length; i++) {
+                if (i > 0) {
+                    writer.write(delimiters[(i - 1) % delimiters.length]);
                 }
-                if (!isAllFileRead) {
-                    // Remove last tab
-                    lineBuilder.deleteCharAt(lineBuilder.length() - 1);
-                    resultBuilder.append(lineBuilder);
-                    resultBuilder.append(STRING_NEWLINE);
+                if (row[i] != null) {
+                    writer.write(row[i]);
                 }
             }
+            writer.write(STRING_NEWLINE);
+        }
+    }
+
+    /**
+     * Writes each input as one row, opening the files one at a time so that only one is open at once.
+     */
+    private void writeSerial(LineSource[] sources, String[] delimiters, Writer writer, String... fileNames)//NOPMD
+            throws IOException, ShellException {
+        boolean hasOutput = false;
+        boolean isStdinRead = false;
+        for (int i = 0; i < fileNames.length; i++) {
+            if (sources[i] != null) {
+                // only stdin is opened ahead in serial mode; once exhausted, naming it again adds no row
+                hasOutput |= writeSerialRow(sources[i], delimiters, writer, hasOutput && !isStdinRead);
+                isStdinRead = true;
+                continue;
+            }
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(//NOPMD
+                    IOUtils.openInputStream(fileNames[i])))) {
+                hasOutput |= writeSerialRow(reader::readLine, delimiters, writer, hasOutput);
+            }
+        }
+    }
 
-            // remove last newline
-            if (resultBuilder.length() > 0) {
-                resultBuilder.deleteCharAt(resultBuilder.length() - 1);
+    /**
+     * Writes the lines of one input as a row.
+     *
+     * @param isEmptyRow If true, an input with no lines is written as an empty row
+     * @return True if a row was written
+     */
+    private boolean writeSerialRow(LineSource source, String[] delimiters, Writer writer, boolean isEmptyRow)
+            throws IOException {
+        String line = source.nextLine();
+        if (line == null) {
+            if (isEmptyRow) {
+                writer.write(STRING_NEWLINE);
+            }
+            return isEmptyRow;
+        }
+        writer.write(line);
+        int delimiterIndex = 0;
+        while ((line = source.nextLine()) != null) {
+            writer.write(delimiters[delimiterIndex]);
+            delimiterIndex = (delimiterIndex + 1) % delimiters.length;
+            writer.write(line);
+        }
+        writer.write(STRING_NEWLINE);
+        return true;
+    }
+
+    private void closeInputs(List<Closeable> openInputs) throws PasteException {
+        for (Closeable input : openInputs) {
+            try {
+                input.close();
+            } catch (IOException e) {
+                PasteException pasteException = new PasteException(e.getMessage());
+                pasteException.initCause(e);
+                throw pasteException;
             }
+        }
+    }
+
+    /**
+     * Supplies the lines of one input, returning null once the input is exhausted.
+     */
+    private interface LineSource {
+        String nextLine() throws IOException;
+    }
+
+    /**
+     * Reads lines on a background thread into a bounded queue, so that a slow input is read while the other
+     * inputs are being waited on.
+     */
+    private static final class ReadAheadSource implements LineSource, Closeable {
+        private static final int READ_AHEAD_LINES = 1024;
+        private static final Object END_OF_INPUT = new Object();
+
+        private final BlockingQueue<Object> lines = new ArrayBlockingQueue<>(READ_AHEAD_LINES);
+        private final Thread readerThread;
+        private boolean isExhausted;
+
+        private ReadAheadSource(BufferedReader reader) {
+            readerThread = new Thread(() -> readAll(reader), "paste-read-ahead");
+            readerThread.setDaemon(true);
+            readerThread.start();
+        }
 
-            // Close all readers
-            for (BufferedReader reader : fileReaders) {//NOPMD
+        private void readAll(BufferedReader reader) {
+            try {
                 try {
-                    reader.close();
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        lines.put(line);
+                    }
+                    lines.put(END_OF_INPUT);
                 } catch (IOException e) {
-                    PasteException pasteException = new PasteException(e.getMessage());
-                    pasteException.initCause(e);
-                    throw pasteException;
+                    lines.put(e);
                 }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
             }
-
-
         }
 
-        if (isSerial) {
-            return Arrays.stream(resultBuilder.toString().split("\n"))
-                    .filter(line -> !line.trim().isEmpty()) // Filter out empty lines
-                    .collect(Collectors.joining(STRING_NEWLINE));
+        @Override
+        public String nextLine() throws IOException {
+            if (isExhausted) {
+                return null;
+            }
+            Object next;
+            try {
+                next = lines.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                InterruptedIOException exception = new InterruptedIOException(e.getMessage());
+                exception.initCause(e);
+                throw exception;
+            }
+            if (next == END_OF_INPUT) {
+                isExhausted = true;
+                return null;
+            }
+            if (next instanceof IOException) {
+                isExhausted = true;
+                throw (IOException) next;
+            }
+            return (String) next;
         }
-        return resultBuilder.toString();
-    };
-
 
+        @Override
+        public void close() {
+            readerThread.interrupt();
+        }
+    }
 }
@@ -0,0 +1,69 @@
+package sg.edu.nus.comp.cs4218.impl.app;
+
+import sg.edu.nus.comp.cs4218.app.PopdInterface;
+import sg.edu.nus.comp.cs4218.exception.CdException;
+import sg.edu.nus.comp.cs4218.exception.PopdException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static sg.edu.nus.comp.cs4218.impl.util.ErrorConstants.*;
+import static sg.edu.nus.comp.cs4218.impl.util.StringUtils.STRING_NEWLINE;
+
+public class PopdApplication implements PopdInterface {
+    public static final String ERR_STACK_EMPTY = "directory stack empty";
+
+    /**
+     * Removes the directory on top of the directory stack and changes to it. If the directory can no longer be
+     * entered, it is put back and the stack is left unchanged.
+     *
+     * @throws PopdException If the stack is empty, or if the directory cannot be entered.
+     */
+    @Override
+    public void popDirectory() throws PopdException {
+        String top = CdApplication.popFromStack();
+        if (top == null) {
+            throw new PopdException(ERR_STACK_EMPTY);
+        }
+        try {
+            new CdApplication().enterDirectory(top, top);
+        } catch (CdException e) {
+            CdApplication.pushToStack(top);
+            PopdException popdException = new PopdException(e.getReason());
+            popdException.initCause(e);
+            throw popdException;
+        }
+    }
+
+    /**
+     * Runs the popd application, and prints the directory stack as dirs does.
+     * Assumption: The application takes in no args.
+     *
+     * @param args   Array of arguments for the application.
+     * @param stdin  An InputStream, not used.
+     * @param stdout An OutputStream to print the directory stack to.
+     * @throws PopdException If the stack is empty, if the directory cannot be entered, or if input argument is null.
+     */
+    @Override
+    public void run(String[] args, InputStream stdin, OutputStream stdout) throws PopdException {
+        if (args == null) {
+            throw new PopdException(ERR_NULL_ARGS);
+        }
+        if (stdin == null || stdout == null) {
+            throw new PopdException(ERR_NULL_STREAMS);
+        }
+        if (args.length > 0) {
+            throw new PopdException(ERR_TOO_MANY_ARGS);
+        }
+        popDirectory();
+        try {
+            stdout.write((DirsApplication.formatStack() + STRING_NEWLINE).getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            PopdException popdException = new PopdException(ERR_WRITE_STREAM);
+            popdException.initCause(e);
+            throw popdException;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package sg.edu.nus.comp.cs4218.impl.app;
+
+import sg.edu.nus.comp.cs4218.Environment;
+import sg.edu.nus.comp.cs4218.app.PushdInterface;
+import sg.edu.nus.comp.cs4218.exception.CdException;
+import sg.edu.nus.comp.cs4218.exception.PushdException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static sg.edu.nus.comp.cs4218.impl.util.ErrorConstants.*;
+import static sg.edu.nus.comp.cs4218.impl.util.StringUtils.STRING_NEWLINE;
+
+public class PushdApplication implements PushdInterface {
+    public static final String ERR_NO_OTHER_DIR = "no other directory";
+
+    /**
+     * Saves the current directory on the directory stack and changes to the specified directory, which is
+     * validated as by cd. Without a path, exchanges the current directory with the top of the stack, which is
+     * validated again in case it changed since it was pushed.
+     *
+     * @param path String of the path to a directory, or null to exchange with the top of the stack
+     * @throws PushdException If the stack is empty when exchanging, or if the directory cannot be entered.
+     */
+    @Override
+    public void pushDirectory(String path) throws PushdException {
+        CdApplication cdApp = new CdApplication();
+        String previous = Environment.currentDirectory;
+        try {
+            if (path == null) {
+                String top = CdApplication.popFromStack();
+                if (top == null) {
+                    throw new PushdException(ERR_NO_OTHER_DIR);
+                }
+                try {
+                    cdApp.enterDirectory(top, top);
+                } catch (CdException e) {
+                    CdApplication.pushToStack(top);
+                    throw e;
+                }
+            } else {
+                cdApp.changeToDirectory(path);
+            }
+        } catch (CdException e) {
+            PushdException pushdException = new PushdException(e.getReason());
+            pushdException.initCause(e);
+            throw pushdException;
+        }
+        CdApplication.pushToStack(previous);
+    }
+
+    /**
+     * Runs the pushd application with the specified arguments, and prints the directory stack as dirs does.
+     * Assumption: The application takes in at most one arg.
+     *
+     * @param args   Array of arguments for the application.
+     * @param stdin  An InputStream, not used.
+     * @param stdout An OutputStream to print the directory stack to.
+     * @throws PushdException If an error occurs while changing directory, or if input argument is null.
+     */
+    @Override
+    public void run(String[] args, InputStream stdin, OutputStream stdout) throws PushdException {
+        if (args == null) {
+            throw new PushdException(ERR_NULL_ARGS);
+        }
+        if (stdin == null || stdout == null) {
+            throw new PushdException(ERR_NULL_STREAMS);
+        }
+        if (args.length > 1) {
+            throw new PushdException(ERR_TOO_MANY_ARGS);
+        }
+        pushDirectory(args.length == 0 ? null : args[0]);
+        try {
+            stdout.write((DirsApplication.formatStack() + STRING_NEWLINE).getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            PushdException pushdException = new PushdException(ERR_WRITE_STREAM);
+            pushdException.initCause(e);
+            throw pushdException;
+        }
+    }
+}
@@ -1,23 +1,66 @@
 package sg.edu.nus.comp.cs4218.impl.app;
 
-import sg.edu.nus.comp.cs4218.Environment;
 import sg.edu.nus.comp.cs4218.app.RmInterface;
 import sg.edu.nus.comp.cs4218.exception.RmException;
 import sg.edu.nus.comp.cs4218.impl.parser.RmArgsParser;
 import sg.edu.nus.comp.cs4218.impl.util.IOUtils;
 
-import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static sg.edu.nus.comp.cs4218.impl.util.ErrorConstants.*;
+import static sg.edu.nus.comp.cs4218.impl.util.StringUtils.CHAR_FILE_SEP;
+import static sg.edu.nus.comp.cs4218.impl.util.StringUtils.STRING_NEWLINE;
 
 /**
  * A class that implements the {@link RmInterface} interface, providing functionality to remove files and directories.
  */
 public class RmApplication implements RmInterface {
+    public static final String MSG_REMOVED_FILE = "removed '%s'";
+    public static final String MSG_REMOVED_DIRECTORY = "removed directory '%s'";
+    public static final String MSG_REMOVED_TREE = "removed directory '%s' and %d entries inside it";
+    public static final String MSG_PROGRESS = "removing '%s': %d entries removed";
+    public static final String MSG_REAPING = "removed directory '%s', deleting its contents in the background";
+    public static final String TRASH_DIR = ".rm-trash";
+
+    private static final ForkJoinPool DELETE_POOL = ForkJoinPool.commonPool();
+    private static final long PROGRESS_MILLIS = 1000;
+    private static final int FILE_BATCH = 1024;
+    private static final Object TRASH_LOCK = new Object();
+    private static final AtomicLong TRASH_COUNTER = new AtomicLong();
+    private static final AtomicInteger PENDING_REAPS = new AtomicInteger();
+    // leftover trash entries already queued, so that they are not queued twice
+    private static final Set<Path> QUEUED_LEFTOVERS = ConcurrentHashMap.newKeySet();
+    private static final ExecutorService REAPER = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "rm-reaper");
+        thread.setDaemon(true);
+        return thread;
+    });
 
     /**
      * Removes files and directories based on the provided arguments.
@@ -30,6 +73,27 @@ public class RmApplication implements RmInterface {
     @Override
     public void remove(Boolean isEmptyFolder, Boolean isRecursive, String... fileNames)
             throws RmException {
+        remove(isEmptyFolder, isRecursive, false, false, false, null, fileNames);
+    }
+
+    /**
+     * Removes files and directories based on the provided arguments. Directories are removed recursively with a
+     * fork/join traversal that deletes sibling subtrees in parallel and removes each directory once its children
+     * are gone. Failures inside a tree are collected and reported together once the rest of the tree is removed.
+     *
+     * @param isEmptyFolder Flag indicating if empty folders should be removed.
+     * @param isRecursive   Flag indicating if removal should be done recursively.
+     * @param isForce       Flag indicating if missing files should be ignored and permission pre-checks skipped.
+     * @param isVerbose     Flag indicating if each removed argument and the progress of large removals should be
+     *                      reported.
+     * @param isAsync       Flag indicating if directories removed recursively should be moved to a trash directory
+     *                      and deleted in the background.
+     * @param stdout        Output stream for verbose reports, not used otherwise.
+     * @param fileNames     Array of file and directory names to be removed.
+     * @throws RmException If an error occurs during file removal.
+     */
+    public void remove(Boolean isEmptyFolder, Boolean isRecursive, Boolean isForce, Boolean isVerbose,//NOPMD
+                       Boolean isAsync, OutputStream stdout, String... fileNames) throws RmException {
         // Check if file names array is null or empty
         if (fileNames == null || fileNames.length == 0) {
             throw new IllegalArgumentException(ERR_NULL_ARGS);
@@ -37,25 +101,34 @@ public class RmApplication implements RmInterface {
 
         // Iterate over each file name
         for (String fileName : fileNames) {
-            String currDir = Environment.currentDirectory;
-            File file = IOUtils.resolveFilePath(fileName).toFile();
+            Path path = IOUtils.resolveFilePath(fileName);
             try {
-                // Check if file or directory exists
-                if (!file.exists()) {
+                // Check if file or directory exists, without following a symbolic link to it
+                if (!Files.exists(path, LinkOption.NOFOLLOW_LINKS)) {
+                    if (isForce) {
+                        continue;
+                    }
                     throw new IOException(fileName + ": " + ERR_FILE_NOT_FOUND);
                 }
+                if (!isForce) {
+                    checkParentWritable(path, fileName);
+                }
                 // If the path is a directory
-                if (file.isDirectory()) {
+                if (Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS)) {
                     // If removal is to be done recursively
-                    if (isRecursive) {
-                        deleteDirectory(file);
+                    if (isRecursive && isAsync && reapLater(path)) {
+                        report(isVerbose, stdout, String.format(MSG_REAPING, fileName));
+                    } else if (isRecursive) {
+                        long count = deleteDirectory(path, fileName, isVerbose, stdout);
+                        report(isVerbose, stdout, String.format(MSG_REMOVED_TREE, fileName, count - 1));
                     }
                     // If removal should only be for empty directories
                     else if (isEmptyFolder) {
-                        if (Objects.requireNonNull(file.listFiles()).length == 0) {
-                            if (!file.delete()) {
+                        if (Objects.requireNonNull(path.toFile().listFiles()).length == 0) {
+                            if (!path.toFile().delete()) {
                                 throw new IOException(fileName + ": Failed to delete empty directory");
                             }
+                            report(isVerbose, stdout, String.format(MSG_REMOVED_DIRECTORY, fileName));
                         } else {
                             throw new IOException(fileName + ": Directory is not empty");
                         }
@@ -63,9 +136,10 @@ public class RmApplication implements RmInterface {
                         throw new IOException(fileName + ": " + ERR_IS_DIR);
                     }
                 } else {
-                    if (!file.delete()) {
+                    if (!path.toFile().delete()) {
                         throw new IOException("Failed to delete file: " + fileName);
                     }
+                    report(isVerbose, stdout, String.format(MSG_REMOVED_FILE, fileName));
                 }
             } catch (IOException e) {
                 RmException rmException = new RmException("rm: " + e.getMessage());
@@ -76,30 +150,159 @@ public class RmApplication implements RmInterface {
     }
 
     /**
-     * Recursively deletes a directory and its contents.
+     * Checks that the directory holding the given path can be written to, which removing the path requires.
+     *
+     * @throws IOException If the parent directory is not writable.
+     */
+    private void checkParentWritable(Path path, String fileName) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null && !Files.isWritable(parent)) {
+            throw new IOException(fileName + ": " + ERR_NO_PERM);
+        }
+    }
+
+    /**
+     * Deletes a directory and its contents on the fork/join pool. In verbose mode the number of entries removed so
+     * far is reported every {@link #PROGRESS_MILLIS} milliseconds while the deletion runs.
      *
      * @param directory The directory to be deleted.
-     * @throws IOException If an error occurs during directory deletion.
+     * @param name      Name of the directory as given, used in messages.
+     * @return The number of entries removed, the directory itself included.
+     * @throws IOException If any entry could not be deleted, with one line per failure.
+     */
+    private long deleteDirectory(Path directory, String name, boolean isVerbose, OutputStream stdout)
+            throws IOException {
+        Queue<String> errors = new ConcurrentLinkedQueue<>();
+        AtomicLong removed = new AtomicLong();
+        ForkJoinTask<Boolean> task = DELETE_POOL.submit(new DeleteTreeTask(directory, name, errors, removed));
+        boolean isComplete = false;
+        while (!isComplete) {
+            try {
+                task.get(PROGRESS_MILLIS, TimeUnit.MILLISECONDS);
+                isComplete = true;
+            } catch (TimeoutException e) {
+                report(isVerbose, stdout, String.format(MSG_PROGRESS, name, removed.get()));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(name + ": Interrupted", e);
+            } catch (ExecutionException e) {
+                throw new IOException(name + ": Failed to delete directory", e.getCause());
+            }
+        }
+        if (!errors.isEmpty()) {
+            throw new IOException(String.join(STRING_NEWLINE + "rm: ", errors));
+        }
+        return removed.get();
+    }
+
+    /**
+     * Atomically renames a directory into the hidden {@link #TRASH_DIR} next to it, which is on the same
+     * filesystem, and queues its deletion on the reaper thread. Entries left in the trash directory by shells
+     * that exited before their reaper finished are queued as well, so that they are deleted by the next
+     * asynchronous removal in the same directory. Entries the reaper cannot delete stay in the trash directory.
+     *
+     * @param directory The directory to be removed.
+     * @return False if the directory could not be renamed, in which case nothing was changed.
      */
-    private void deleteDirectory(File directory) throws IOException {
-        File[] files = directory.listFiles();
-        if (files != null) {
-            for (File file : files) {
-                // If the file is a directory, recursively call deleteDirectory
-                if (file.isDirectory()) {
-                    deleteDirectory(file);
+    private boolean reapLater(Path directory) {
+        Path parent = directory.toAbsolutePath().getParent();
+        if (parent == null) {
+            return false;
+        }
+        Path trash = parent.resolve(TRASH_DIR);
+        Path trashed = trash.resolve(directory.getFileName() + "." + ProcessHandle.current().pid() + "."
+                + TRASH_COUNTER.incrementAndGet());
+        List<Path> leftovers;
+        synchronized (TRASH_LOCK) {
+            try {
+                Files.createDirectories(trash);
+                Files.move(directory, trashed, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                return false;
+            }
+            leftovers = findLeftovers(trash);
+        }
+        queueReap(trash, trashed);
+        for (Path leftover : leftovers) {
+            if (QUEUED_LEFTOVERS.add(leftover)) {
+                queueReap(trash, leftover);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the entries of a trash directory renamed by processes that are no longer running. The pid of the
+     * process is the second last part of the name of each entry.
+     */
+    private static List<Path> findLeftovers(Path trash) {
+        List<Path> leftovers = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(trash)) {
+            for (Path entry : stream) {
+                String name = entry.getFileName().toString();
+                int counterStart = name.lastIndexOf('.');
+                int pidStart = counterStart > 0 ? name.lastIndexOf('.', counterStart - 1) : -1;
+                if (pidStart < 0) {
+                    continue;
                 }
-                // If the file is a regular file, delete it
-                else {
-                    if (!file.delete()) {
-                        throw new IOException(file.getName() + ": Failed to delete file");
+                try {
+                    long pid = Long.parseLong(name.substring(pidStart + 1, counterStart));
+                    if (ProcessHandle.of(pid).isEmpty()) {
+                        leftovers.add(entry);
                     }
+                } catch (NumberFormatException e) {
+                    // Not an entry renamed by rm --async.
                 }
             }
+        } catch (IOException | DirectoryIteratorException e) {
+            // Leftovers are looked for again by the next asynchronous removal.
         }
-        // After deleting all files and subdirectories, delete the directory itself
-        if (!directory.delete()) {
-            throw new IOException(directory.getName() + ": Failed to delete directory");
+        return leftovers;
+    }
+
+    private static void queueReap(Path trash, Path trashed) {
+        PENDING_REAPS.incrementAndGet();
+        REAPER.execute(() -> reap(trash, trashed));
+    }
+
+    private static void reap(Path trash, Path trashed) {
+        try {
+            DELETE_POOL.invoke(new DeleteTreeTask(trashed, trashed.toString(), new ConcurrentLinkedQueue<>(),
+                    new AtomicLong()));
+            synchronized (TRASH_LOCK) {
+                Files.deleteIfExists(trash);
+            }
+        } catch (IOException e) {
+            // The trash directory still holds other entries, or this one could not be fully deleted.
+        } finally {
+            QUEUED_LEFTOVERS.remove(trashed);
+            PENDING_REAPS.decrementAndGet();
+        }
+    }
+
+    /**
+     * Returns the number of directories renamed by rm --async whose deletion has not finished.
+     */
+    public static int getPendingReaps() {
+        return PENDING_REAPS.get();
+    }
+
+    /**
+     * Waits until every directory queued by rm --async so far has been deleted.
+     *
+     * @throws InterruptedException If the waiting thread is interrupted.
+     */
+    public static void awaitReaps() throws InterruptedException {
+        try {
+            REAPER.submit(() -> { }).get();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private void report(boolean isVerbose, OutputStream stdout, String message) throws IOException {
+        if (isVerbose && stdout != null) {
+            stdout.write((message + STRING_NEWLINE).getBytes(StandardCharsets.UTF_8));
         }
     }
 
@@ -123,11 +326,113 @@ public class RmApplication implements RmInterface {
             String[] fileNames = parser.getFileNames();
 
             // Remove files and directories based on processed arguments
-            remove(isEmptyFolder, isRecursive, fileNames);
+            remove(isEmptyFolder, isRecursive, parser.isForce(), parser.isVerbose(), parser.isAsync(), stdout,
+                    fileNames);
         } catch (Exception e) {
             RmException rmException = new RmException(e.getMessage());
             rmException.initCause(e);
             throw rmException;//NOPMD
         }
     }
+
+    /**
+     * Deletes a directory tree. Subdirectories are deleted by forked tasks, and files in batches of
+     * {@link #FILE_BATCH} so that a single large directory is also spread over the pool. The directory itself is
+     * deleted once all of its children are gone; if any of them could not be deleted it is left in place.
+     */
+    private static final class DeleteTreeTask extends RecursiveTask<Boolean> {
+        private static final long serialVersionUID = 1L;
+
+        private final Path directory;
+        private final String name;
+        private final transient Queue<String> errors;
+        private final transient AtomicLong removed;
+
+        private DeleteTreeTask(Path directory, String name, Queue<String> errors, AtomicLong removed) {
+            this.directory = directory;
+            this.name = name;
+            this.errors = errors;
+            this.removed = removed;
+        }
+
+        @Override
+        protected Boolean compute() {
+            List<Path> files = new ArrayList<>();
+            List<ForkJoinTask<Boolean>> subtasks = new ArrayList<>();
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+                for (Path entry : stream) {
+                    String entryName = name + CHAR_FILE_SEP + entry.getFileName();
+                    if (Files.isDirectory(entry, LinkOption.NOFOLLOW_LINKS)) {
+                        subtasks.add(new DeleteTreeTask(entry, entryName, errors, removed).fork());
+                    } else {
+                        files.add(entry);
+                        if (files.size() == FILE_BATCH) {
+                            subtasks.add(new DeleteFilesTask(files, name, errors, removed).fork());
+                            files = new ArrayList<>();
+                        }
+                    }
+                }
+            } catch (IOException | DirectoryIteratorException e) {
+                errors.add(name + ": Failed to read directory");
+                joinAll(subtasks);
+                return false;
+            }
+
+            boolean isEmptied = new DeleteFilesTask(files, name, errors, removed).compute();
+            isEmptied &= joinAll(subtasks);
+            if (!isEmptied) {
+                return false;
+            }
+            try {
+                Files.delete(directory);
+                removed.incrementAndGet();
+                return true;
+            } catch (IOException e) {
+                errors.add(name + ": Failed to delete directory");
+                return false;
+            }
+        }
+
+        private static boolean joinAll(List<ForkJoinTask<Boolean>> subtasks) {
+            boolean isSuccessful = true;
+            for (ForkJoinTask<Boolean> subtask : subtasks) {
+                isSuccessful &= subtask.join();
+            }
+            return isSuccessful;
+        }
+    }
+
+    /**
+     * Deletes a batch of files, which are not directories, from one directory.
+     */
+    private static final class DeleteFilesTask extends RecursiveTask<Boolean> {
+        private static final long serialVersionUID = 1L;
+
+        private final transient List<Path> files;
+        private final String directoryName;
+        private final transient Queue<String> errors;
+        private final transient AtomicLong removed;
+
+        private DeleteFilesTask(List<Path> files, String directoryName, Queue<String> errors, AtomicLong removed) {
+            this.files = files;
+            this.directoryName = directoryName;
+            this.errors = errors;
+            this.removed = removed;
+        }
+
+        @Override
+        protected Boolean compute() {
+            boolean isSuccessful = true;
+            for (Path file : files) {
+                try {
+                    Files.delete(file);
+                    removed.incrementAndGet();
+                } catch (IOException e) {
+                    errors.add(directoryName + CHAR_FILE_SEP + file.getFileName() + ": Failed to delete file");
+                    isSuccessful = false;
+                }
+            }
+            return isSuccessful;
+        }
+    }
 }
@@ -6,16 +6,20 @@ import sg.edu.nus.comp.cs4218.exception.*;
 import sg.edu.nus.comp.cs4218.impl.parser.SortArgsParser;
 import sg.edu.nus.comp.cs4218.impl.util.IOUtils;
 
+import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.io.OutputStream;
 import java.math.BigInteger;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Locale;
+import java.util.PriorityQueue;
 
 import static sg.edu.nus.comp.cs4218.impl.util.ErrorConstants.*;
 import static sg.edu.nus.comp.cs4218.impl.util.StringUtils.STRING_NEWLINE;
@@ -28,6 +32,10 @@ public class SortApplication implements SortInterface { //NOPMD
     public static final int RANK_LOWERCASE = 4;
     public static final int RANK_POS_NUM = 5;
     public static final String NEGATIVE_POSTFIX = "-";
+    // Longest digit run that always fits in a long without overflow
+    public static final int MAX_RADIX_DIGITS = 18;
+    private static final int RADIX_BITS = 8;
+    private static final int RADIX_MASK = (1 << RADIX_BITS) - 1;
 
     /**
      * Runs the sort application with the specified arguments.
@@ -53,7 +61,12 @@ public class SortApplication implements SortInterface { //NOPMD
             sortArgsParser.parse(args);
             StringBuilder output = new StringBuilder();
 
-            if (sortArgsParser.getFileNames().contains(STRING_STDIN_DASH)) {
+            if (sortArgsParser.isTopN()) {
+                String[] fileNames = sortArgsParser.getFileNames().isEmpty()
+                        ? new String[]{STRING_STDIN_DASH}
+                        : sortArgsParser.getFileNames().toArray(new String[0]);
+                output.append(sortTopLines(sortArgsParser.isFirstWordNumber(), sortArgsParser.isReverseOrder(), sortArgsParser.isCaseIndependent(), sortArgsParser.getTopCount(), stdin, fileNames));
+            } else if (sortArgsParser.getFileNames().contains(STRING_STDIN_DASH)) {
                 output.append(sortFilesAndStdin(sortArgsParser.isFirstWordNumber(), sortArgsParser.isReverseOrder(), sortArgsParser.isCaseIndependent(), stdin, sortArgsParser.getFileNames().toArray(new String[0])));
             } else if (sortArgsParser.getFileNames().isEmpty()) {
                 output.append(sortFromStdin(sortArgsParser.isFirstWordNumber(), sortArgsParser.isReverseOrder(), sortArgsParser.isCaseIndependent(), stdin));
@@ -98,16 +111,7 @@ public class SortApplication implements SortInterface { //NOPMD
     }
 
     protected void appendFileContents(List<String> lines, String filePath) throws SortException {
-        File node = IOUtils.resolveFilePath(filePath).toFile();
-        if (!node.exists()) {
-            throw new SortException(ERR_FILE_NOT_FOUND);
-        }
-        if (node.isDirectory()) {
-            throw new SortException(ERR_IS_DIR);
-        }
-        if (!node.canRead()) {
-            throw new SortException(ERR_NO_PERM);
-        }
+        checkReadableFile(filePath);
         try (InputStream input = IOUtils.openInputStream(filePath)) {
             try {
                 lines.addAll(IOUtils.getLinesFromInputStream(input));
@@ -128,6 +132,150 @@ public class SortApplication implements SortInterface { //NOPMD
         }
     }
 
+    /**
+     * Checks that the given path refers to an existing, readable file.
+     *
+     * @param filePath Path of the file to check
+     * @throws SortException If the file does not exist, is a directory or cannot be read
+     */
+    protected void checkReadableFile(String filePath) throws SortException {
+        File node = IOUtils.resolveFilePath(filePath).toFile();
+        if (!node.exists()) {
+            throw new SortException(ERR_FILE_NOT_FOUND);
+        }
+        if (node.isDirectory()) {
+            throw new SortException(ERR_IS_DIR);
+        }
+        if (!node.canRead()) {
+            throw new SortException(ERR_NO_PERM);
+        }
+    }
+
+    /**
+     * Returns string containing the first topCount lines of the sorted output of the given files and stdin,
+     * in the same order a full sort would produce them. Lines are streamed through a bounded heap, so only
+     * about topCount lines are held in memory at any time.
+     *
+     * @param isFirstWordNumber Boolean option to treat the first word of a line as a number
+     * @param isReverseOrder    Boolean option to sort in reverse order
+     * @param isCaseIndependent Boolean option to perform case-independent sorting
+     * @param topCount          Number of lines to keep
+     * @param stdin             InputStream read for every "-" in fileNames
+     * @param fileNames         Array of String of file names
+     * @throws SortException    If the given stdin or files is null or unable to be read
+     */
+    protected String sortTopLines(Boolean isFirstWordNumber, Boolean isReverseOrder, Boolean isCaseIndependent,//NOPMD
+                                  int topCount, InputStream stdin, String... fileNames) throws SortException {
+        if (stdin == null) {
+            throw new SortException(ERR_NULL_STREAMS);
+        }
+        if (fileNames == null) {
+            throw new SortException(ERR_NULL_ARGS);
+        }
+
+        Comparator<RankedLine> ascending = rankedLineComparator(isFirstWordNumber, isCaseIndependent);
+        // The heap head is the line that would be dropped first: the largest for a normal sort and the
+        // smallest for a reverse sort. One extra line is kept so that swapCaseIndependent sees the same
+        // neighbour at the cut-off as it would in a full sort.
+        int capacity = (int) Math.min((long) topCount + 1, Integer.MAX_VALUE);
+        TopLinesHeap heap = new TopLinesHeap(capacity, isReverseOrder ? ascending : ascending.reversed());
+
+        for (String file : fileNames) {
+            if (file.equals(STRING_STDIN_DASH)) {
+                offerLines(heap, stdin);
+            } else {
+                checkReadableFile(file);
+                try (InputStream input = IOUtils.openInputStream(file)) {
+                    offerLines(heap, input);
+                } catch (ShellException | IOException e) {
+                    SortException sortException = new SortException(ERR_IO_EXCEPTION);
+                    sortException.initCause(e);
+                    throw sortException;
+                }
+            }
+        }
+
+        List<RankedLine> ranked = new ArrayList<>(heap.lines);
+        ranked.sort(ascending);
+        List<String> lines = new ArrayList<>(ranked.size());
+        for (RankedLine rankedLine : ranked) {
+            lines.add(rankedLine.line);
+        }
+        if (isCaseIndependent) {
+            swapCaseIndependent(lines);
+        }
+        if (isReverseOrder) {
+            Collections.reverse(lines);
+        }
+        return String.join(STRING_NEWLINE, lines.subList(0, Math.min(topCount, lines.size())));
+    }
+
+    private void offerLines(TopLinesHeap heap, InputStream input) throws SortException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input));
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                heap.offer(line);
+            }
+        } catch (IOException e) {
+            SortException sortException = new SortException(ERR_IO_EXCEPTION);
+            sortException.initCause(e);
+            throw sortException;
+        }
+    }
+
+    /**
+     * Returns a comparator that orders lines exactly as sortList does before its case swap and reversal.
+     * Ties are broken by input position, mirroring the stable sort used by sortList.
+     *
+     * @param isFirstWordNumber Boolean option to treat the first word of a line as a number
+     * @param isCaseIndependent Boolean option to perform case-independent sorting
+     * @return Comparator ordering ranked lines in ascending sort order
+     */
+    private Comparator<RankedLine> rankedLineComparator(boolean isFirstWordNumber, boolean isCaseIndependent) {
+        Comparator<String> lineComparator = lineComparator(isFirstWordNumber, isCaseIndependent);
+        return (line1, line2) -> {
+            int result = lineComparator.compare(line1.line, line2.line);
+            return result == 0 ? Long.compare(line1.position, line2.position) : result;
+        };
+    }
+
+    /**
+     * Returns a comparator over whole lines that combines negNumberComparator and nonNegNumberComparator the
+     * same way sortList does: when sorting numerically, negative numbers come first, ordered by their magnitude.
+     *
+     * @param isFirstWordNumber Boolean option to treat the first word of a line as a number
+     * @param isCaseIndependent Boolean option to perform case-independent sorting
+     * @return Comparator ordering lines in ascending sort order
+     */
+    protected Comparator<String> lineComparator(boolean isFirstWordNumber, boolean isCaseIndependent) {
+        Comparator<String> nonNegComparator = nonNegNumberComparator(isFirstWordNumber, isCaseIndependent);
+        if (!isFirstWordNumber) {
+            return nonNegComparator;
+        }
+        Comparator<String> negComparator = negNumberComparator(true, isCaseIndependent);
+        return (str1, str2) -> {
+            boolean isNeg1 = isNegativeNumber(str1);
+            boolean isNeg2 = isNegativeNumber(str2);
+            if (isNeg1 && isNeg2) {
+                return negComparator.compare(str1.substring(1), str2.substring(1));
+            }
+            if (isNeg1 != isNeg2) {
+                return isNeg1 ? -1 : 1;
+            }
+            return nonNegComparator.compare(str1, str2);
+        };
+    }
+
+    /**
+     * Checks if the line starts with a dash followed by a digit, i.e. is treated as a negative number by -n.
+     *
+     * @param line Line to check
+     */
+    protected boolean isNegativeNumber(String line) {
+        return line.length() >= 2 && line.startsWith(NEGATIVE_POSTFIX) && Character.isDigit(line.charAt(1));
+    }
+
     /**
      * Returns string containing the orders of the lines from the standard input
      *
@@ -204,6 +352,14 @@ public class SortApplication implements SortInterface { //NOPMD
      */
     protected void sortList(Boolean isFirstWordNumber, Boolean isReverseOrder, Boolean isCaseIndependent,
                           List<String> input) {
+        // Lines made purely of integers cannot be affected by swapCaseIndependent, so only reversal remains
+        if (isFirstWordNumber && sortIntegerLines(input)) {
+            if (isReverseOrder) {
+                Collections.reverse(input);
+            }
+            return;
+        }
+
         ArrayList<String> negativeNumbers = new ArrayList<>();
         ArrayList<Integer> negativeIndex = new ArrayList<>();
 
@@ -211,7 +367,7 @@ public class SortApplication implements SortInterface { //NOPMD
             // Separate out negative numbers (from first two characters)
             for (int i = 0; i < input.size(); i++) {
                 String temp = input.get(i);
-                if (temp.length() >= 2 && temp.startsWith(NEGATIVE_POSTFIX) && Character.isDigit(temp.charAt(1))) {
+                if (isNegativeNumber(temp)) {
                     negativeNumbers.add(temp);
                     negativeIndex.add(i);
                 }
@@ -249,6 +405,124 @@ public class SortApplication implements SortInterface { //NOPMD
         }
     }
 
+    /**
+     * Sorts the input in place with a radix sort if every line is a bare integer, producing the same order as the
+     * comparators used by sortList with isFirstWordNumber. Stops at the first line that is not an integer of at
+     * most MAX_RADIX_DIGITS digits, leaving the input untouched.
+     * <p>
+     * Integers written with a leading zero are ranked before the other integers of the same sign and compared as
+     * strings, so they are collected separately and only the remaining values go through the radix sort.
+     *
+     * @param input List of lines to sort
+     * @return true if the input consisted only of integers and has been sorted
+     */
+    protected boolean sortIntegerLines(List<String> input) {
+        long[] values = new long[input.size()];
+        int valueCount = 0;
+        List<String> negZeroLeading = new ArrayList<>();
+        List<String> nonNegZeroLeading = new ArrayList<>();
+
+        for (String line : input) {
+            int start = line.startsWith(NEGATIVE_POSTFIX) ? 1 : 0;
+            int digitCount = line.length() - start;
+            if (digitCount == 0 || !isAsciiDigits(line, start)) {
+                return false;
+            }
+            if (line.charAt(start) == '0') {
+                (start == 1 ? negZeroLeading : nonNegZeroLeading).add(line);
+                continue;
+            }
+            if (digitCount > MAX_RADIX_DIGITS) {
+                return false;
+            }
+            long magnitude = 0;
+            for (int i = start; i < line.length(); i++) {
+                magnitude = magnitude * 10 + (line.charAt(i) - '0');
+            }
+            values[valueCount++] = start == 1 ? -magnitude : magnitude;
+        }
+
+        radixSort(values, valueCount);
+        // Same order as negNumberComparator on the magnitudes: longer first, then lexicographically larger first
+        negZeroLeading.sort((str1, str2) -> str1.length() == str2.length()
+                ? str2.compareTo(str1) : str2.length() - str1.length());
+        Collections.sort(nonNegZeroLeading);
+
+        int index = 0;
+        for (String line : negZeroLeading) {
+            input.set(index++, line);
+        }
+        int valueIndex = 0;
+        while (valueIndex < valueCount && values[valueIndex] < 0) {
+            input.set(index++, Long.toString(values[valueIndex++]));
+        }
+        for (String line : nonNegZeroLeading) {
+            input.set(index++, line);
+        }
+        while (valueIndex < valueCount) {
+            input.set(index++, Long.toString(values[valueIndex++]));
+        }
+        return true;
+    }
+
+    private boolean isAsciiDigits(String str, int start) {
+        for (int i = start; i < str.length(); i++) {
+            char chr = str.charAt(i);
+            if (chr < '0' || chr > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Sorts the first length values in ascending order using an LSD radix sort on 8-bit digits. Passes in which
+     * every value falls into the same bucket are skipped.
+     *
+     * @param values Array of values to sort in place
+     * @param length Number of values at the start of the array to sort
+     */
+    protected static void radixSort(long[] values, int length) {
+        long[] source = values;
+        long[] target = new long[length];
+        int[] counts = new int[RADIX_MASK + 2];
+
+        for (int shift = 0; shift < Long.SIZE; shift += RADIX_BITS) {
+            Arrays.fill(counts, 0);
+            for (int i = 0; i < length; i++) {
+                counts[radixDigit(source[i], shift) + 1]++;
+            }
+            boolean isSingleBucket = false;
+            for (int bucket = 1; bucket < counts.length; bucket++) {
+                if (counts[bucket] == length) {
+                    isSingleBucket = true;
+                    break;
+                }
+            }
+            if (isSingleBucket) {
+                continue;
+            }
+            for (int bucket = 1; bucket < counts.length; bucket++) {
+                counts[bucket] += counts[bucket - 1];
+            }
+            for (int i = 0; i < length; i++) {
+                target[counts[radixDigit(source[i], shift)]++] = source[i];
+            }
+            long[] swap = source;
+            source = target;
+            target = swap;
+        }
+
+        if (source != values) {
+            System.arraycopy(source, 0, values, 0, length);
+        }
+    }
+
+    private static int radixDigit(long value, int shift) {
+        // Flipping the sign bit makes signed order match unsigned byte order
+        return (int) (((value ^ Long.MIN_VALUE) >>> shift) & RADIX_MASK);
+    }
+
     /**
      * Returns a rank score for the given character. A higher score indicates a larger character.
      *
@@ -430,4 +704,44 @@ public class SortApplication implements SortInterface { //NOPMD
             }
         };
     }
+
+    /**
+     * A line together with its position in the input, used to keep top-N selection stable.
+     */
+    private static final class RankedLine {
+        private final String line;
+        private final long position;
+
+        private RankedLine(String line, long position) {
+            this.line = line;
+            this.position = position;
+        }
+    }
+
+    /**
+     * Bounded heap keeping the capacity best lines seen so far. The head of the heap is always the line that
+     * ranks worst among those kept, so a new line only enters the heap if it ranks better than the head.
+     */
+    private static final class TopLinesHeap {
+        private final int capacity;
+        private final Comparator<RankedLine> dropOrder;
+        private final PriorityQueue<RankedLine> lines;
+        private long position;
+
+        private TopLinesHeap(int capacity, Comparator<RankedLine> dropOrder) {
+            this.capacity = capacity;
+            this.dropOrder = dropOrder;
+            this.lines = new PriorityQueue<>(dropOrder);
+        }
+
+        private void offer(String line) {
+            RankedLine candidate = new RankedLine(line, position++);
+            if (lines.size() < capacity) {
+                lines.add(candidate);
+            } else if (dropOrder.compare(candidate, lines.peek()) > 0) {
+                lines.poll();
+                lines.add(candidate);
+            }
+        }
+    }
 }
@@ -11,6 +11,7 @@ import java.io.*;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import static sg.edu.nus.comp.cs4218.impl.util.ErrorConstants.ERR_FILE_NOT_FOUND;
@@ -19,7 +20,8 @@ import static sg.edu.nus.comp.cs4218.impl.util.ErrorConstants.ERR_NO_PERM;
 import static sg.edu.nus.comp.cs4218.impl.util.ErrorConstants.ERR_NULL_STREAMS;
 
 public class UniqApplication implements UniqInterface { // NOPMD
-    private static final String PREFIX_FORMAT = "   %s";
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+    private static final String ERR_TOO_MANY_LINES = "too many distinct lines to keep in memory";
 
     /**
      * Runs the uniq application with the specified arguments.
@@ -43,31 +45,26 @@ public class UniqApplication implements UniqInterface { // NOPMD
         UniqArgsParser uniqArgsParser = new UniqArgsParser();
         try {
             uniqArgsParser.parse(args);
-            StringBuilder output = new StringBuilder();
-
-            List<String> files = uniqArgsParser.getFileNames();
-            String inputFileName = getInputOutputFiles(files)[0];
-            String outputFileName = getInputOutputFiles(files)[1];
-
-            if (uniqArgsParser.getFileNames().isEmpty()) {
-                // Read from stdin if no files are specified
-                output.append(uniqFromStdin(uniqArgsParser.isCount(),
-                        uniqArgsParser.isRepeated(),
-                        uniqArgsParser.isAllRepeated(),
-                        stdin, outputFileName));
-            } else {
-                // Read from files
-                output.append(uniqFromFile(uniqArgsParser.isCount(),
-                        uniqArgsParser.isRepeated(),
-                        uniqArgsParser.isAllRepeated(),
-                        inputFileName, outputFileName));
-            }
 
-            if (output.length() != 0) {
+            String[] inputOutputFiles = getInputOutputFiles(uniqArgsParser.getFileNames());
+            String inputFileName = inputOutputFiles[0];
+            String outputFileName = inputOutputFiles[1];
+
+            InputStream input = stdin;
+            if (inputFileName != null) {
+                input = openInputFile(inputFileName);
+            }
+            try {
                 if (outputFileName == null) {
-                    stdout.write(output.toString().getBytes());
+                    newFilter(uniqArgsParser, stdout).filter(input);
                 } else {
-                    writeToOutputFile(output.toString(), outputFileName);
+                    try (OutputStream output = openOutputFile(outputFileName)) {
+                        newFilter(uniqArgsParser, output).filter(input);
+                    }
+                }
+            } finally {
+                if (inputFileName != null) {
+                    IOUtils.closeInputStream(input);
                 }
             }
         } catch (UniqException e) {
@@ -112,78 +109,119 @@ public class UniqApplication implements UniqInterface { // NOPMD
 
     @Override
     public String uniqFromFile(Boolean isCount, Boolean isRepeated, Boolean isAllRepeated, String inputFileName, String outputFileName) throws UniqException {
+        InputStream input = openInputFile(inputFileName);
         try {
-            Path path = IOUtils.resolveFilePath(inputFileName);
-            if (Files.exists(path) && !Files.isReadable(path)) {
-                throw new UniqException(ERR_NO_PERM);
-            }
-
-            if (!Files.exists(path)) {
-                throw new UniqException(ERR_FILE_NOT_FOUND);
-            }
-
-            if (Files.isDirectory(path)) {
-                throw new UniqException(ERR_IS_DIR);
-            }
-            InputStream input = null; // NOPMD
-
+            return uniqFromStdin(isCount, isRepeated, isAllRepeated, input, outputFileName);
+        } finally {
             try {
-                input = IOUtils.openInputStream(inputFileName);
+                IOUtils.closeInputStream(input);
             } catch (ShellException e) {
-                e.printStackTrace();
+                UniqException uniqException = new UniqException(e.getMessage());
+                uniqException.initCause(e);
+                throw uniqException;
             }
+        }
+    }
 
-            if (input.available() <= 0) {
-                IOUtils.closeInputStream(input);
-                return StringUtils.STRING_NEWLINE;
-            }
+    @Override
+    public String uniqFromStdin(Boolean isCount, Boolean isRepeated, Boolean isAllRepeated, InputStream stdin, String outputFileName) throws UniqException {
+        if (stdin == null) {
+            throw new UniqException(ERR_NULL_STREAMS);
+        }
+        try {
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            uniqToStream(isCount, isRepeated, isAllRepeated, stdin, output);
+            return output.toString();
+        } catch (IOException e) {
+            UniqException uniqException = new UniqException(e.getMessage());
+            uniqException.initCause(e);
+            throw uniqException;
+        }
+    }
 
-            String output = uniqFromStdin(isCount, isRepeated, isAllRepeated,
-                    input, outputFileName);
-            IOUtils.closeInputStream(input);
+    /**
+     * Filters adjacent matching lines from the input and writes the result to the output as it is read. Only the
+     * previous distinct line and its count are kept, so memory does not grow with the size of the input. An empty
+     * input produces a single empty line unless only duplicate lines are printed.
+     *
+     * @param isCount       Boolean option to prefix lines by the number of occurrences of adjacent duplicate lines
+     * @param isRepeated    Boolean option to print only duplicate lines, one for each group
+     * @param isAllRepeated Boolean option to print all duplicate lines (takes precedence if isRepeated is set to true)
+     * @param input         InputStream to read lines from
+     * @param output        OutputStream to write the filtered lines to
+     * @throws IOException If the input cannot be read or the output cannot be written.
+     */
+    protected void uniqToStream(Boolean isCount, Boolean isRepeated, Boolean isAllRepeated, InputStream input,//NOPMD
+                                OutputStream output) throws IOException {
+        new AdjacentLineFilter(isCount, isRepeated, isAllRepeated, output).filter(input);
+    }
 
-            return output;
+    private static LineFilter newFilter(UniqArgsParser parser, OutputStream output) {
+        if (parser.isGlobal()) {
+            return new GlobalLineFilter(parser.isCount(), parser.isRepeated(), parser.isAllRepeated(),
+                    parser.isUnique(), parser.isIgnoreCase(), parser.getSkipFields(), parser.getSkipChars(), output);
+        }
+        return new AdjacentLineFilter(parser.isCount(), parser.isRepeated(), parser.isAllRepeated(),
+                parser.isUnique(), parser.isIgnoreCase(), parser.getSkipFields(), parser.getSkipChars(), output);
+    }
 
-        } catch (UniqException e) {
-            throw e;
-        } catch (ShellException | IOException e) {
+    /**
+     * Checks that the input file can be read and opens it.
+     *
+     * @param inputFileName Path of the input file.
+     * @return InputStream of the input file.
+     * @throws UniqException If the file does not exist, is a directory or cannot be read.
+     */
+    private static InputStream openInputFile(String inputFileName) throws UniqException {
+        Path path = IOUtils.resolveFilePath(inputFileName);
+        if (Files.exists(path) && !Files.isReadable(path)) {
+            throw new UniqException(ERR_NO_PERM);
+        }
+        if (!Files.exists(path)) {
+            throw new UniqException(ERR_FILE_NOT_FOUND);
+        }
+        if (Files.isDirectory(path)) {
+            throw new UniqException(ERR_IS_DIR);
+        }
+        try {
+            return IOUtils.openInputStream(inputFileName);
+        } catch (ShellException e) {
             UniqException uniqException = new UniqException(e.getMessage());
             uniqException.initCause(e);
             throw uniqException;
         }
     }
 
-    @Override
-    public String uniqFromStdin(Boolean isCount, Boolean isRepeated, Boolean isAllRepeated, InputStream stdin, String outputFileName) throws UniqException {
+    /**
+     * Checks that the output file can be written and opens it, replacing any existing content.
+     *
+     * @param outputFile Path of the output file.
+     * @return OutputStream of the output file.
+     * @throws UniqException If the file is a directory or cannot be written.
+     */
+    private static OutputStream openOutputFile(String outputFile) throws UniqException {
+        File node = IOUtils.resolveFilePath(outputFile).toFile();
+        checkOutputFile(node);
         try {
-            List<String> result;
-            StringBuilder stringBuilder = new StringBuilder();
-            result = removeDuplicates(stdin, true);
-
-            if (isRepeated || isAllRepeated) {
-                result = getDuplicatesOnOption(result, isRepeated, isAllRepeated);
-            }
-
-            for (String line : result) {
-                if (isCount) {
-                    stringBuilder.append(String.format(PREFIX_FORMAT, line));
-                } else {
-                    stringBuilder.append(line.split("\\s+", 2)[1]);
-                }
-                stringBuilder.append(StringUtils.STRING_NEWLINE);
-            }
-
-            return stringBuilder.toString();
-
-        } catch (UniqException e) {
-            throw e;
-        } catch (Exception e) {
+            return new FileOutputStream(node);
+        } catch (IOException e) {
             UniqException uniqException = new UniqException(e.getMessage());
             uniqException.initCause(e);
             throw uniqException;
         }
     }
 
+    private static void checkOutputFile(File node) throws UniqException {
+        if (node.exists()) {
+            if (node.isDirectory()) {
+                throw new UniqException(ERR_IS_DIR);
+            }
+            if (!node.canWrite()) {
+                throw new UniqException(ERR_NO_PERM);
+            }
+        }
+    }
+
     /**
      * Removes consecutive duplicate lines from the input stream.
      *
@@ -271,14 +309,7 @@ public class UniqApplication implements UniqInterface { // NOPMD
     public static void writeToOutputFile(String lines, String outputFile) throws UniqException {
         try {
             File node = IOUtils.resolveFilePath(outputFile).toFile();
-            if (node.exists()) {
-                if (node.isDirectory()) {
-                    throw new UniqException(ERR_IS_DIR);
-                }
-                if (!node.canWrite()) {
-                    throw new UniqException(ERR_NO_PERM);
-                }
-            }
+            checkOutputFile(node);
             byte[] strToBytes = lines.getBytes();
             Files.write(node.toPath(), strToBytes);
 
@@ -290,4 +321,406 @@ public class UniqApplication implements UniqInterface { // NOPMD
             throw uniqException;
         }
     }
+
+    /**
+     * Reads lines from an input and writes the selected ones to an output. Lines are handed to subclasses in place in
+     * the read buffer, together with the offset where their compared part starts after skipping fields and bytes, so
+     * no substring is built for a comparison.
+     */
+    private abstract static class LineFilter {
+        private static final byte[] LINE_SEPARATOR = StringUtils.STRING_NEWLINE.getBytes();
+        private static final byte[] COUNT_INDENT = {' ', ' ', ' '};
+
+        protected final boolean isCount;
+        protected final boolean isRepeated;
+        protected final boolean isAllRepeated;
+        protected final boolean isUnique;
+        private final boolean isIgnoreCase;
+        private final int skipFields;
+        private final int skipChars;
+        private final OutputStream output;
+        private final byte[] digits = new byte[20];
+        private boolean hasLine;
+
+        protected LineFilter(boolean isCount, boolean isRepeated, boolean isAllRepeated, boolean isUnique,//NOPMD
+                             boolean isIgnoreCase, int skipFields, int skipChars, OutputStream output) {
+            this.isCount = isCount;
+            this.isRepeated = isRepeated;
+            this.isAllRepeated = isAllRepeated;
+            this.isUnique = isUnique;
+            this.isIgnoreCase = isIgnoreCase;
+            this.skipFields = skipFields;
+            this.skipChars = skipChars;
+            this.output = new BufferedOutputStream(output, READ_BUFFER_SIZE);
+        }
+
+        /**
+         * Accepts a line, which is only valid until this method returns.
+         *
+         * @param line     Buffer holding the line
+         * @param offset   Index of the first byte of the line
+         * @param length   Length of the line, without its line separator
+         * @param keyStart Index of the first byte of the compared part of the line
+         * @throws IOException If the output cannot be written.
+         */
+        protected abstract void accept(byte[] line, int offset, int length, int keyStart) throws IOException;
+
+        /**
+         * Writes any lines that are still pending once the input is exhausted.
+         *
+         * @throws IOException If the output cannot be written.
+         */
+        protected abstract void finish() throws IOException;
+
+        /**
+         * Filters every line of the input. A line ends at "\n", optionally preceded by "\r". An empty input produces
+         * a single empty line unless only some lines are selected.
+         */
+        protected void filter(InputStream input) throws IOException {
+            byte[] buffer = new byte[READ_BUFFER_SIZE];
+            int start = 0;
+            int end = 0;
+            int read;
+            while ((read = input.read(buffer, end, buffer.length - end)) != -1) {
+                end += read;
+                start = acceptCompleteLines(buffer, start, end);
+                if (start > 0) {
+                    System.arraycopy(buffer, start, buffer, 0, end - start);
+                    end -= start;
+                    start = 0;
+                }
+                if (end == buffer.length) {
+                    buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                }
+            }
+            if (end > start) {
+                acceptLine(buffer, start, end - start);
+            }
+
+            if (hasLine) {
+                finish();
+            } else if (!isRepeated && !isAllRepeated && !isUnique) {
+                output.write(LINE_SEPARATOR);
+            }
+            output.flush();
+        }
+
+        private int acceptCompleteLines(byte[] data, int start, int end) throws IOException {
+            int lineStart = start;
+            for (int i = start; i < end; i++) {
+                if (data[i] == '\n') {
+                    int lineEnd = i > lineStart && data[i - 1] == '\r' ? i - 1 : i;
+                    acceptLine(data, lineStart, lineEnd - lineStart);
+                    lineStart = i + 1;
+                }
+            }
+            return lineStart;
+        }
+
+        private void acceptLine(byte[] line, int offset, int length) throws IOException {
+            hasLine = true;
+            accept(line, offset, length, keyStart(line, offset, offset + length));
+        }
+
+        /**
+         * Returns the index where the compared part of a line starts, after skipping fields and then bytes. A field
+         * is a run of blanks followed by a run of non-blanks.
+         */
+        private int keyStart(byte[] line, int start, int end) {
+            int index = start;
+            for (int field = 0; field < skipFields && index < end; field++) {
+                while (index < end && isBlank(line[index])) {
+                    index++;
+                }
+                while (index < end && !isBlank(line[index])) {
+                    index++;
+                }
+            }
+            return (int) Math.min(end, (long) index + skipChars);
+        }
+
+        /**
+         * Returns true if two compared parts of lines match, folding case if lines are compared without regard to
+         * case.
+         */
+        protected boolean isSameKey(byte[] first, int firstStart, int firstEnd,//NOPMD
+                                    byte[] second, int secondStart, int secondEnd) {
+            if (!isIgnoreCase) {
+                return Arrays.equals(first, firstStart, firstEnd, second, secondStart, secondEnd);
+            }
+            if (firstEnd - firstStart != secondEnd - secondStart) {
+                return false;
+            }
+            for (int i = firstStart, j = secondStart; i < firstEnd; i++, j++) {
+                if (first[i] != second[j] && toUpperCase(first[i]) != toUpperCase(second[j])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Returns the byte used to compare lines at the given index, folding case if lines are compared without
+         * regard to case.
+         */
+        protected int keyByte(byte[] line, int index) {
+            return isIgnoreCase ? toUpperCase(line[index]) : line[index];
+        }
+
+        /**
+         * Returns true if a line that occurs the given number of times is printed.
+         */
+        protected boolean isSelected(long count) {
+            return !(isUnique && count > 1 || (isRepeated || isAllRepeated) && count == 1);
+        }
+
+        /**
+         * Writes a line, prefixed by its count if counts are printed. Without counts, leading whitespace is left out,
+         * as uniq has always done.
+         */
+        protected void writeLine(byte[] line, int offset, int length, long count) throws IOException {
+            int start = offset;
+            int end = offset + length;
+            if (!isCount) {
+                while (start < end && isWhitespace(line[start])) {
+                    start++;
+                }
+            } else {
+                output.write(COUNT_INDENT);
+                int digitStart = digits.length;
+                long value = count;
+                do {
+                    digits[--digitStart] = (byte) ('0' + value % 10);
+                    value /= 10;
+                } while (value > 0);
+                output.write(digits, digitStart, digits.length - digitStart);
+                output.write(' ');
+            }
+            output.write(line, start, end - start);
+            output.write(LINE_SEPARATOR);
+        }
+
+        private static boolean isBlank(byte value) {
+            return value == ' ' || value == '\t';
+        }
+
+        private static int toUpperCase(byte value) {
+            return value >= 'a' && value <= 'z' ? value - ('a' - 'A') : value;
+        }
+
+        private static boolean isWhitespace(byte value) {
+            return value == ' ' || value == '\t' || value == '\n' || value == 0x0B || value == '\f' || value == '\r';
+        }
+    }
+
+    /**
+     * Streams adjacent line groups. Only the first line of the current group is copied out of the read buffer, so
+     * duplicates cost no allocation and memory does not grow with the input.
+     */
+    private static final class AdjacentLineFilter extends LineFilter {
+        private byte[] previous = new byte[128];
+        private int previousLength;
+        private int previousKeyStart;
+        private long count;
+
+        private AdjacentLineFilter(boolean isCount, boolean isRepeated, boolean isAllRepeated, OutputStream output) {
+            this(isCount, isRepeated, isAllRepeated, false, false, 0, 0, output);
+        }
+
+        private AdjacentLineFilter(boolean isCount, boolean isRepeated, boolean isAllRepeated, boolean isUnique,//NOPMD
+                                   boolean isIgnoreCase, int skipFields, int skipChars, OutputStream output) {
+            super(isCount, isRepeated, isAllRepeated, isUnique, isIgnoreCase, skipFields, skipChars, output);
+        }
+
+        @Override
+        protected void accept(byte[] line, int offset, int length, int keyStart) throws IOException {
+            if (count > 0 && isSameKey(previous, previousKeyStart, previousLength, line, keyStart, offset + length)) {
+                count++;
+                if (isAllRepeated && !isCount && !isUnique) {
+                    if (count == 2) {
+                        writeLine(previous, 0, previousLength, count);
+                    }
+                    writeLine(line, offset, length, count);
+                }
+                return;
+            }
+            if (count > 0) {
+                endGroup();
+            }
+            if (previous.length < length) {
+                previous = new byte[Math.max(length, previous.length * 2)];
+            }
+            System.arraycopy(line, offset, previous, 0, length);
+            previousLength = length;
+            previousKeyStart = keyStart - offset;
+            count = 1;
+        }
+
+        @Override
+        protected void finish() throws IOException {
+            endGroup();
+        }
+
+        /**
+         * Writes the group that has just ended, represented by its first line. Without counts, all repeated lines
+         * were already written as they were read.
+         */
+        private void endGroup() throws IOException {
+            if (!isSelected(count)) {
+                return;
+            }
+            if (!isAllRepeated) {
+                writeLine(previous, 0, previousLength, count);
+            } else if (isCount) {
+                for (long i = 0; i < count; i++) {
+                    writeLine(previous, 0, previousLength, count);
+                }
+            }
+        }
+    }
+
+    /**
+     * Keeps the first occurrence of every line, wherever its duplicates are. Distinct lines are packed into one byte
+     * array and found through an open-addressing table of 64-bit fingerprints of their compared parts, falling back
+     * to an exact comparison when fingerprints match. Without options, first occurrences are written as they are
+     * read; otherwise the lines are written with their counts once the input is exhausted.
+     */
+    private static final class GlobalLineFilter extends LineFilter {
+        private static final int INITIAL_TABLE_SIZE = 1024;
+        private static final int MAX_ARRAY_SIZE = Integer.MAX_VALUE - 8;
+        private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+        private static final long FNV_PRIME = 0x100000001b3L;
+
+        private final boolean isStreaming;
+        private long[] fingerprints = new long[INITIAL_TABLE_SIZE];
+        private int[] entries = new int[INITIAL_TABLE_SIZE];
+        private byte[] lines = new byte[READ_BUFFER_SIZE];
+        private int[] lineStarts = new int[INITIAL_TABLE_SIZE / 2 + 1];
+        private int[] keyOffsets = new int[INITIAL_TABLE_SIZE / 2];
+        private long[] counts;
+        private int size;
+
+        private GlobalLineFilter(boolean isCount, boolean isRepeated, boolean isAllRepeated, boolean isUnique,//NOPMD
+                                 boolean isIgnoreCase, int skipFields, int skipChars, OutputStream output) {
+            super(isCount, isRepeated, isAllRepeated, isUnique, isIgnoreCase, skipFields, skipChars, output);
+            isStreaming = !isCount && !isRepeated && !isAllRepeated && !isUnique;
+            if (!isStreaming) {
+                counts = new long[keyOffsets.length];
+            }
+        }
+
+        @Override
+        protected void accept(byte[] line, int offset, int length, int keyStart) throws IOException {
+            int end = offset + length;
+            long fingerprint = fingerprint(line, keyStart, end);
+            int mask = fingerprints.length - 1;
+            int slot = (int) fingerprint & mask;
+            while (fingerprints[slot] != 0) {
+                if (fingerprints[slot] == fingerprint) {
+                    int entry = entries[slot];
+                    if (isSameKey(lines, lineStarts[entry] + keyOffsets[entry], lineStarts[entry + 1],
+                            line, keyStart, end)) {
+                        if (counts != null) {
+                            counts[entry]++;
+                        }
+                        return;
+                    }
+                }
+                slot = (slot + 1) & mask;
+            }
+
+            int entry = addLine(line, offset, length, keyStart - offset);
+            fingerprints[slot] = fingerprint;
+            entries[slot] = entry;
+            if (size * 2 > fingerprints.length) {
+                growTable();
+            }
+            if (isStreaming) {
+                writeLine(line, offset, length, 1);
+            }
+        }
+
+        /**
+         * Writes every selected line in order of first occurrence. With -D, the first occurrence stands for each of
+         * its duplicates.
+         */
+        @Override
+        protected void finish() throws IOException {
+            if (isStreaming) {
+                return;
+            }
+            for (int entry = 0; entry < size; entry++) {
+                long count = counts[entry];
+                if (!isSelected(count)) {
+                    continue;
+                }
+                int start = lineStarts[entry];
+                int length = lineStarts[entry + 1] - start;
+                long times = isAllRepeated ? count : 1;
+                for (long i = 0; i < times; i++) {
+                    writeLine(lines, start, length, count);
+                }
+            }
+        }
+
+        private int addLine(byte[] line, int offset, int length, int keyOffset) throws IOException {
+            int start = lineStarts[size];
+            if (length > lines.length - start) {
+                long needed = (long) start + length;
+                if (needed > MAX_ARRAY_SIZE) {
+                    throw new IOException(ERR_TOO_MANY_LINES);
+                }
+                lines = Arrays.copyOf(lines, (int) Math.min(MAX_ARRAY_SIZE, Math.max(needed, 2L * lines.length)));
+            }
+            if (size == keyOffsets.length) {
+                keyOffsets = Arrays.copyOf(keyOffsets, size * 2);
+                lineStarts = Arrays.copyOf(lineStarts, size * 2 + 1);
+                if (counts != null) {
+                    counts = Arrays.copyOf(counts, size * 2);
+                }
+            }
+            System.arraycopy(line, offset, lines, start, length);
+            keyOffsets[size] = keyOffset;
+            lineStarts[size + 1] = start + length;
+            if (counts != null) {
+                counts[size] = 1;
+            }
+            return size++;
+        }
+
+        private void growTable() {
+            long[] oldFingerprints = fingerprints;
+            int[] oldEntries = entries;
+            fingerprints = new long[oldFingerprints.length * 2];
+            entries = new int[oldEntries.length * 2];
+            int mask = fingerprints.length - 1;
+            for (int i = 0; i < oldFingerprints.length; i++) {
+                if (oldFingerprints[i] == 0) {
+                    continue;
+                }
+                int slot = (int) oldFingerprints[i] & mask;
+                while (fingerprints[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                fingerprints[slot] = oldFingerprints[i];
+                entries[slot] = oldEntries[i];
+            }
+        }
+
+        /**
+         * Returns a non-zero 64-bit FNV-1a fingerprint of the compared part of a line, with its bits mixed so that
+         * the low bits can index the table.
+         */
+        private long fingerprint(byte[] line, int start, int end) {
+            long hash = FNV_OFFSET_BASIS;
+            for (int i = start; i < end; i++) {
+                hash ^= keyByte(line, i) & 0xff;
+                hash *= FNV_PRIME;
+            }
+            hash ^= hash >>> 33;
+            hash *= 0xff51afd7ed558ccdL;
+            hash ^= hash >>> 33;
+            return hash == 0 ? 1 : hash;
+        }
+    }
 }
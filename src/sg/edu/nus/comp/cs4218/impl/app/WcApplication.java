@@ -6,6 +6,22 @@ import sg.edu.nus.comp.cs4218.impl.parser.WcArgsParser;
 import sg.edu.nus.comp.cs4218.impl.util.IOUtils;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 import static sg.edu.nus.comp.cs4218.impl.util.ErrorConstants.*;
 import static sg.edu.nus.comp.cs4218.impl.util.StringUtils.STRING_NEWLINE;
@@ -16,6 +32,22 @@ public class WcApplication implements WcInterface { //NOPMD
     private static final int LINES_INDEX = 0;
     private static final int WORDS_INDEX = 1;
     private static final int BYTES_INDEX = 2;
+    private static final int CHARS_INDEX = 3;
+    private static final int MAX_LINE_INDEX = 4;
+    private static final int REPORT_SIZE = 5;
+    // Counters are printed in this order, matching GNU wc
+    private static final int[] PRINT_ORDER = {LINES_INDEX, WORDS_INDEX, CHARS_INDEX, BYTES_INDEX, MAX_LINE_INDEX};
+    private static final int TAB_WIDTH = 8;
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+    // Files at least this large are memory-mapped and counted in parallel chunks
+    private static final long MAPPED_THRESHOLD = 32L * 1024 * 1024;
+    private static final long MAX_CHUNK_SIZE = 1L << 30;
+    private static final int PARALLELISM = Runtime.getRuntime().availableProcessors();
+    private static final ExecutorService COUNT_POOL = ForkJoinPool.commonPool();
+    private static final byte CLASS_WORD = 0;
+    private static final byte CLASS_SPACE = 1;
+    private static final byte CLASS_NEWLINE = 2;
+    private static final byte[] BYTE_CLASSES = buildByteClasses();
 
     /**
      * Runs the wc application with the specified arguments.
@@ -39,11 +71,11 @@ public class WcApplication implements WcInterface { //NOPMD
             StringBuilder output = new StringBuilder();
 
             if (wcArgsParser.getFileNames().contains(STRING_STDIN_DASH)) {
-                output.append(countFromFileAndStdin(wcArgsParser.isByteCount(), wcArgsParser.isLineCount(), wcArgsParser.isWordCount(), stdin, wcArgsParser.getFileNames().toArray(new String[0])));
+                output.append(countFromFileAndStdin(wcArgsParser.isByteCount(), wcArgsParser.isLineCount(), wcArgsParser.isWordCount(), wcArgsParser.isCharCount(), wcArgsParser.isMaxLineLength(), stdin, wcArgsParser.getFileNames().toArray(new String[0])));
             } else if (wcArgsParser.getFileNames().isEmpty()) {
-                output.append(countFromStdin(wcArgsParser.isByteCount(), wcArgsParser.isLineCount(), wcArgsParser.isWordCount(), stdin));
+                output.append(countFromStdin(wcArgsParser.isByteCount(), wcArgsParser.isLineCount(), wcArgsParser.isWordCount(), wcArgsParser.isCharCount(), wcArgsParser.isMaxLineLength(), stdin));
             } else {
-                output.append(countFromFiles(wcArgsParser.isByteCount(), wcArgsParser.isLineCount(), wcArgsParser.isWordCount(), wcArgsParser.getFileNames().toArray(new String[0])));
+                output.append(countFromFiles(wcArgsParser.isByteCount(), wcArgsParser.isLineCount(), wcArgsParser.isWordCount(), wcArgsParser.isCharCount(), wcArgsParser.isMaxLineLength(), wcArgsParser.getFileNames().toArray(new String[0])));
             }
 
             if (output.length() > 0) {
@@ -69,15 +101,31 @@ public class WcApplication implements WcInterface { //NOPMD
      * @throws WcException If the given file name is null or files cannot be read.
      */
     @Override
-    public String countFromFiles(Boolean isBytes, Boolean isLines, Boolean isWords, String... fileNames) //NOPMD
+    public String countFromFiles(Boolean isBytes, Boolean isLines, Boolean isWords, String... fileNames)
             throws WcException {
+        return countFromFiles(isBytes, isLines, isWords, false, false, fileNames);
+    }
+
+    /**
+     * Returns string containing the selected counts of each input file, followed by a total line if more than
+     * one file is given.
+     *
+     * @param isBytes         Boolean option to count the number of Bytes
+     * @param isLines         Boolean option to count the number of lines
+     * @param isWords         Boolean option to count the number of words
+     * @param isChars         Boolean option to count the number of characters
+     * @param isMaxLineLength Boolean option to report the length of the longest line
+     * @param fileNames       Array of String of file names
+     * @throws WcException If the given file name is null or files cannot be read.
+     */
+    public String countFromFiles(Boolean isBytes, Boolean isLines, Boolean isWords, Boolean isChars, //NOPMD
+                                 Boolean isMaxLineLength, String... fileNames) throws WcException {
         if (fileNames == null) {
             throw new WcException(ERR_NULL_ARGS);
         }
+        boolean[] selected = selectCounters(isBytes, isLines, isWords, isChars, isMaxLineLength);
         StringBuilder stringBuilder = new StringBuilder();
-        long totalLines = 0;
-        long totalWords = 0;
-        long totalBytes = 0;
+        long[] total = new long[REPORT_SIZE];
 
         for (String file : fileNames) {
             File node = IOUtils.resolveFilePath(file).toFile();
@@ -90,38 +138,23 @@ public class WcApplication implements WcInterface { //NOPMD
             if (!node.canRead()) {
                 throw new WcException(ERR_NO_PERM);
             }
+        }
 
-            try (InputStream input = IOUtils.openInputStream(file)) {
-                long[] count = getCountReport(input);
-                totalLines += count[LINES_INDEX];
-                totalWords += count[WORDS_INDEX];
-                totalBytes += count[BYTES_INDEX];
+        // Submit every file up front so that they are counted concurrently, then collect in argument order
+        List<List<Future<WordCount>>> pendingCounts = new ArrayList<>();
+        for (String file : fileNames) {
+            pendingCounts.add(submitCount(IOUtils.resolveFilePath(file), selected));
+        }
 
-                if (isLines) {
-                    stringBuilder.append(String.format(NUMBER_FORMAT, count[LINES_INDEX]));
-                }
-                if (isWords) {
-                    stringBuilder.append(String.format(NUMBER_FORMAT, count[WORDS_INDEX]));
-                }
-                if (isBytes) {
-                    stringBuilder.append(String.format(NUMBER_FORMAT, count[BYTES_INDEX]));
-                }
-                stringBuilder.append(" ").append(file).append(STRING_NEWLINE); //NOPMD
-            } catch (IOException | ShellException e) {
-                e.printStackTrace();
-            }
+        for (int i = 0; i < fileNames.length; i++) {
+            long[] count = joinCounts(pendingCounts.get(i)).toReport();
+            addToTotal(total, count);
+            appendCounts(stringBuilder, count, selected);
+            stringBuilder.append(" ").append(fileNames[i]).append(STRING_NEWLINE); //NOPMD
         }
 
         if (fileNames.length > 1) {
-            if (isLines) {
-                stringBuilder.append(String.format(NUMBER_FORMAT, totalLines));
-            }
-            if (isWords) {
-                stringBuilder.append(String.format(NUMBER_FORMAT, totalWords));
-            }
-            if (isBytes) {
-                stringBuilder.append(String.format(NUMBER_FORMAT, totalBytes));
-            }
+            appendCounts(stringBuilder, total, selected);
             stringBuilder.append(" total");
         }
 
@@ -145,22 +178,31 @@ public class WcApplication implements WcInterface { //NOPMD
      */
     @Override
     public String countFromStdin(Boolean isBytes, Boolean isLines, Boolean isWords, InputStream stdin) throws WcException {
+        return countFromStdin(isBytes, isLines, isWords, false, false, stdin);
+    }
+
+    /**
+     * Returns string containing the selected counts of standard input
+     *
+     * @param isBytes         Boolean option to count the number of Bytes
+     * @param isLines         Boolean option to count the number of lines
+     * @param isWords         Boolean option to count the number of words
+     * @param isChars         Boolean option to count the number of characters
+     * @param isMaxLineLength Boolean option to report the length of the longest line
+     * @param stdin           InputStream containing arguments from Stdin
+     * @throws WcException If the stdin is null.
+     */
+    public String countFromStdin(Boolean isBytes, Boolean isLines, Boolean isWords, Boolean isChars, //NOPMD
+                                 Boolean isMaxLineLength, InputStream stdin) throws WcException {
         if (stdin == null) {
             throw new WcException(ERR_NULL_STREAMS);
         }
 
-        long[] count = getCountReport(stdin);
+        boolean[] selected = selectCounters(isBytes, isLines, isWords, isChars, isMaxLineLength);
+        long[] count = getCountReport(stdin, selected[CHARS_INDEX], selected[MAX_LINE_INDEX]);
 
         StringBuilder stringBuilder = new StringBuilder();
-        if (isLines) {
-            stringBuilder.append(String.format(NUMBER_FORMAT, count[LINES_INDEX]));
-        }
-        if (isWords) {
-            stringBuilder.append(String.format(NUMBER_FORMAT, count[WORDS_INDEX]));
-        }
-        if (isBytes) {
-            stringBuilder.append(String.format(NUMBER_FORMAT, count[BYTES_INDEX]));
-        }
+        appendCounts(stringBuilder, count, selected);
 
         return stringBuilder.toString();
     }
@@ -175,8 +217,27 @@ public class WcApplication implements WcInterface { //NOPMD
      * @throws WcException If the stdin is null or given file name is null or cannot be read.
      */
     @Override
-    public String countFromFileAndStdin(Boolean isBytes, Boolean isLines, Boolean isWords, InputStream stdin, //NOPMD
+    public String countFromFileAndStdin(Boolean isBytes, Boolean isLines, Boolean isWords, InputStream stdin,
                                         String... fileNames) throws WcException {
+        return countFromFileAndStdin(isBytes, isLines, isWords, false, false, stdin, fileNames);
+    }
+
+    /**
+     * Returns string containing the selected counts of standard input and files, in argument order, followed by
+     * a total line if more than one input is given.
+     *
+     * @param isBytes         Boolean option to count the number of Bytes
+     * @param isLines         Boolean option to count the number of lines
+     * @param isWords         Boolean option to count the number of words
+     * @param isChars         Boolean option to count the number of characters
+     * @param isMaxLineLength Boolean option to report the length of the longest line
+     * @param stdin           InputStream containing arguments from Stdin
+     * @param fileNames       Array of String of file names, where "-" stands for stdin
+     * @throws WcException If the stdin is null or given file name is null or cannot be read.
+     */
+    public String countFromFileAndStdin(Boolean isBytes, Boolean isLines, Boolean isWords, Boolean isChars, //NOPMD
+                                        Boolean isMaxLineLength, InputStream stdin, String... fileNames)
+            throws WcException {
         if (fileNames == null) {
             throw new WcException(ERR_NULL_ARGS);
         }
@@ -184,76 +245,42 @@ public class WcApplication implements WcInterface { //NOPMD
             throw new WcException(ERR_NULL_STREAMS);
         }
 
+        boolean[] selected = selectCounters(isBytes, isLines, isWords, isChars, isMaxLineLength);
         StringBuilder stringBuilder = new StringBuilder();
-        long totalLines = 0;
-        long totalWords = 0;
-        long totalBytes = 0;
+        long[] total = new long[REPORT_SIZE];
 
         for (String file : fileNames) {
-            InputStream input = null; //NOPMD
-
             long[] count;
             if (file.equals(STRING_STDIN_DASH)) {
-                input = stdin;
+                count = getCountReport(stdin, selected[CHARS_INDEX], selected[MAX_LINE_INDEX]);
+            } else if (isByteCountOnly(selected) && Files.isRegularFile(IOUtils.resolveFilePath(file))) {
+                count = getSizeReport(IOUtils.resolveFilePath(file));
             } else {
+                InputStream input = null; //NOPMD
                 try {
                     input = IOUtils.openInputStream(file);
                 } catch (ShellException e) {
                     e.printStackTrace();
                 }
-            }
-
-            count = getCountReport(input);
-
-            totalLines += count[LINES_INDEX];
-            totalWords += count[WORDS_INDEX];
-            totalBytes += count[BYTES_INDEX];
 
-            if (file.equals(STRING_STDIN_DASH)) {
-                if (isLines) {
-                    stringBuilder.append(String.format(NUMBER_FORMAT, count[LINES_INDEX]));
-                }
-                if (isWords) {
-                    stringBuilder.append(String.format(NUMBER_FORMAT, count[WORDS_INDEX]));
-                }
-                if (isBytes) {
-                    stringBuilder.append(String.format(NUMBER_FORMAT, count[BYTES_INDEX]));
-                }
-                stringBuilder.append(" " + STRING_STDIN_DASH).append(STRING_NEWLINE); //NOPMD
-            } else {
-                if (isLines) {
-                    stringBuilder.append(String.format(NUMBER_FORMAT, count[LINES_INDEX]));
-                }
-                if (isWords) {
-                    stringBuilder.append(String.format(NUMBER_FORMAT, count[WORDS_INDEX]));
-                }
-                if (isBytes) {
-                    stringBuilder.append(String.format(NUMBER_FORMAT, count[BYTES_INDEX]));
-                }
-                stringBuilder.append(" " + file).append(STRING_NEWLINE); //NOPMD
-            }
+                count = getCountReport(input, selected[CHARS_INDEX], selected[MAX_LINE_INDEX]);
 
-            try {
-                if (!file.equals(STRING_STDIN_DASH)) {
+                try {
                     IOUtils.closeInputStream(input);
+                } catch (ShellException e) {
+                    WcException wcException = new WcException(e.getMessage());
+                    wcException.initCause(e);
+                    throw wcException;
                 }
-            } catch (ShellException e) {
-                WcException wcException = new WcException(e.getMessage());
-                wcException.initCause(e);
-                throw wcException;
             }
+
+            addToTotal(total, count);
+            appendCounts(stringBuilder, count, selected);
+            stringBuilder.append(" " + file).append(STRING_NEWLINE); //NOPMD
         }
 
         if (fileNames.length > 1) {
-            if (isLines) {
-                stringBuilder.append(String.format(NUMBER_FORMAT, totalLines));
-            }
-            if (isWords) {
-                stringBuilder.append(String.format(NUMBER_FORMAT, totalWords));
-            }
-            if (isBytes) {
-                stringBuilder.append(String.format(NUMBER_FORMAT, totalBytes));
-            }
+            appendCounts(stringBuilder, total, selected);
             stringBuilder.append(" total");
         }
 
@@ -262,50 +289,358 @@ public class WcApplication implements WcInterface { //NOPMD
 
     /**
      * Returns array containing the number of lines, words, and bytes based on data in InputStream.
+     * The input is scanned once in fixed-size blocks and nothing beyond the current block is retained.
      *
      * @param input An InputStream
      * @throws WcException If reading and writing to input or output is not successful
      */
     public long[] getCountReport(InputStream input) throws WcException {
+        return getCountReport(input, false, false);
+    }
+
+    /**
+     * Returns array containing the number of lines, words, bytes and optionally characters and the longest
+     * line length based on data in InputStream. All counters are computed in the same single pass.
+     *
+     * @param input           An InputStream
+     * @param isChars         Boolean option to count the number of characters
+     * @param isMaxLineLength Boolean option to compute the length of the longest line
+     * @throws WcException If reading and writing to input or output is not successful
+     */
+    public long[] getCountReport(InputStream input, boolean isChars, boolean isMaxLineLength) throws WcException {
         if (input == null) {
             throw new WcException(ERR_NULL_STREAMS);
         }
 
-        long[] result = new long[3]; // lines, words, bytes
+        try {
+            return countStream(input, new WordCount(isChars, isMaxLineLength)).toReport();
+        } catch (IOException e) {
+            WcException wcException = new WcException(e.getMessage());
+            wcException.initCause(e);
+            throw wcException;
+        }
+    }
 
-        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
-        byte[] data = new byte[1024];
-        int inRead = 0;
-        boolean inWord = false;
+    /**
+     * Returns array containing the number of lines, words, and bytes of a file, counted by memory-mapping the
+     * file and scanning chunkCount regions of it in parallel.
+     *
+     * @param path       Path of the file to count
+     * @param chunkCount Number of regions to split the file into
+     * @throws WcException If the file cannot be mapped or read
+     */
+    protected long[] getMappedCountReport(Path path, int chunkCount) throws WcException {
+        try {
+            return joinCounts(submitChunks(path, Files.size(path), chunkCount)).toReport();
+        } catch (IOException e) {
+            WcException wcException = new WcException(e.getMessage());
+            wcException.initCause(e);
+            throw wcException;
+        }
+    }
 
+    /**
+     * Returns a report holding only the byte count of a regular file, taken from its size attribute so that
+     * the file is never opened.
+     *
+     * @param path Path of the regular file
+     * @throws WcException If the size of the file cannot be read
+     */
+    protected long[] getSizeReport(Path path) throws WcException {
+        long[] result = new long[REPORT_SIZE];
         try {
-            while ((inRead = input.read(data, 0, data.length)) != -1) {
-                for (int i = 0; i < inRead; ++i) {
-                    if (Character.isWhitespace(data[i])) {
-                        if (data[i] == '\n') {
-                            ++result[LINES_INDEX];
-                        }
-                        if (inWord) {
-                            ++result[WORDS_INDEX];
-                        }
-                        inWord = false;
-                    } else {
-                        inWord = true;
-                    }
-                }
-                result[BYTES_INDEX] += inRead;
-                buffer.write(data, 0, inRead);
+            result[BYTES_INDEX] = Files.size(path);
+        } catch (IOException e) {
+            WcException wcException = new WcException(e.getMessage());
+            wcException.initCause(e);
+            throw wcException;
+        }
+        return result;
+    }
+
+    private boolean[] selectCounters(boolean isBytes, boolean isLines, boolean isWords, boolean isChars,
+                                     boolean isMaxLineLength) {
+        boolean[] selected = new boolean[REPORT_SIZE];
+        selected[LINES_INDEX] = isLines;
+        selected[WORDS_INDEX] = isWords;
+        selected[BYTES_INDEX] = isBytes;
+        selected[CHARS_INDEX] = isChars;
+        selected[MAX_LINE_INDEX] = isMaxLineLength;
+        return selected;
+    }
+
+    private boolean isByteCountOnly(boolean... selected) {
+        for (int index = 0; index < selected.length; index++) {
+            if (selected[index] != (index == BYTES_INDEX)) {
+                return false;
             }
-            buffer.flush();
-            if (inWord) {
-                ++result[WORDS_INDEX];
+        }
+        return true;
+    }
+
+    private void appendCounts(StringBuilder stringBuilder, long[] count, boolean... selected) {
+        for (int index : PRINT_ORDER) {
+            if (selected[index]) {
+                stringBuilder.append(String.format(NUMBER_FORMAT, count[index]));
             }
-        } catch (IOException e) {
+        }
+    }
+
+    private void addToTotal(long[] total, long... count) {
+        for (int index = 0; index < REPORT_SIZE; index++) {
+            if (index == MAX_LINE_INDEX) {
+                total[index] = Math.max(total[index], count[index]);
+            } else {
+                total[index] += count[index];
+            }
+        }
+    }
+
+    /**
+     * Schedules the counting of a file. A byte count alone is answered from the file size, small files are read
+     * as a single stream, and large files are split into memory-mapped chunks, one task per chunk. Character and
+     * line length counts need the whole input in order, so those files are always read as a single stream.
+     * The returned parts must be joined in order.
+     */
+    private List<Future<WordCount>> submitCount(Path path, boolean... selected) throws WcException {
+        List<Future<WordCount>> parts = new ArrayList<>();
+        if (isByteCountOnly(selected) && Files.isRegularFile(path)) {
+            long size = getSizeReport(path)[BYTES_INDEX];
+            parts.add(COUNT_POOL.submit(() -> WordCount.ofSize(size)));
+            return parts;
+        }
+        boolean isSequential = selected[CHARS_INDEX] || selected[MAX_LINE_INDEX];
+        long size = getSizeReport(path)[BYTES_INDEX];
+        if (isSequential || size < MAPPED_THRESHOLD) {
+            parts.add(COUNT_POOL.submit(() -> {
+                try (InputStream input = Files.newInputStream(path)) {
+                    return countStream(input, new WordCount(selected[CHARS_INDEX], selected[MAX_LINE_INDEX]));
+                }
+            }));
+            return parts;
+        }
+        long chunkCount = Math.max(PARALLELISM, (size + MAX_CHUNK_SIZE - 1) / MAX_CHUNK_SIZE);
+        return submitChunks(path, size, (int) chunkCount);
+    }
+
+    private List<Future<WordCount>> submitChunks(Path path, long size, int chunkCount) {
+        long chunkSize = Math.max(1, (size + chunkCount - 1) / chunkCount);
+        List<Future<WordCount>> parts = new ArrayList<>();
+        for (long position = 0; position < size; position += chunkSize) {
+            long start = position;
+            long length = Math.min(chunkSize, size - position);
+            parts.add(COUNT_POOL.submit(() -> countRegion(path, start, length)));
+        }
+        return parts;
+    }
+
+    /**
+     * Waits for the counts of consecutive parts of one input and stitches them together.
+     */
+    private WordCount joinCounts(List<Future<WordCount>> parts) throws WcException {
+        WordCount total = new WordCount(false, false);
+        try {
+            for (Future<WordCount> part : parts) {
+                total.append(part.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
             WcException wcException = new WcException(e.getMessage());
             wcException.initCause(e);
             throw wcException;
+        } catch (ExecutionException e) {
+            WcException wcException = new WcException(e.getCause().getMessage());
+            wcException.initCause(e.getCause());
+            throw wcException;
         }
+        return total;
+    }
 
-        return result;
+    private static WordCount countStream(InputStream input, WordCount count) throws IOException {
+        byte[] data = new byte[READ_BUFFER_SIZE];
+        int inRead;
+        while ((inRead = input.read(data, 0, data.length)) != -1) {
+            count.update(data, inRead);
+        }
+        count.finish();
+        return count;
+    }
+
+    private static WordCount countRegion(Path path, long position, long length) throws IOException {
+        MappedByteBuffer region;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            region = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+        }
+        WordCount count = new WordCount(false, false);
+        byte[] data = new byte[READ_BUFFER_SIZE];
+        while (region.hasRemaining()) {
+            int inRead = Math.min(data.length, region.remaining());
+            region.get(data, 0, inRead);
+            count.update(data, inRead);
+        }
+        return count;
+    }
+
+    /**
+     * Builds the byte classification table used by WordCount. A byte separates words exactly when
+     * Character.isWhitespace holds for its signed value, so bytes of multi-byte characters are word bytes.
+     */
+    private static byte[] buildByteClasses() {
+        byte[] classes = new byte[256];
+        for (int value = 0; value < classes.length; value++) {
+            if (value == '\n') {
+                classes[value] = CLASS_NEWLINE;
+            } else if (Character.isWhitespace((byte) value)) {
+                classes[value] = CLASS_SPACE;
+            } else {
+                classes[value] = CLASS_WORD;
+            }
+        }
+        return classes;
+    }
+
+    /**
+     * Running counts of a contiguous part of an input. Words are counted at their first byte, so the counts of
+     * two adjacent parts can be combined by discounting a word split across the boundary. Characters and the
+     * longest line are only tracked when requested, on the same blocks as the other counters.
+     */
+    private static final class WordCount {
+        private long lines;
+        private long words;
+        private long bytes;
+        private long chars;
+        private long maxLineLength;
+        private long lineLength;
+        private boolean startsInWord;
+        private boolean inWord;
+        private final CharsetDecoder decoder;
+        private final ByteBuffer undecoded;
+        private final CharBuffer decoded;
+        private final boolean isMaxLineLength;
+
+        private WordCount(boolean isChars, boolean isMaxLineLength) {
+            this.isMaxLineLength = isMaxLineLength;
+            if (isChars) {
+                // Malformed bytes are not characters, as in GNU wc
+                decoder = Charset.defaultCharset().newDecoder()
+                        .onMalformedInput(CodingErrorAction.IGNORE)
+                        .onUnmappableCharacter(CodingErrorAction.IGNORE);
+                undecoded = ByteBuffer.allocate(READ_BUFFER_SIZE);
+                decoded = CharBuffer.allocate(READ_BUFFER_SIZE);
+            } else {
+                decoder = null;
+                undecoded = null;
+                decoded = null;
+            }
+        }
+
+        private static WordCount ofSize(long size) {
+            WordCount count = new WordCount(false, false);
+            count.bytes = size;
+            return count;
+        }
+
+        private void update(byte[] data, int length) {
+            if (bytes == 0 && length > 0) {
+                startsInWord = BYTE_CLASSES[data[0] & 0xFF] == CLASS_WORD;
+            }
+            for (int i = 0; i < length; ++i) {
+                byte byteClass = BYTE_CLASSES[data[i] & 0xFF];
+                if (byteClass == CLASS_WORD) {
+                    if (!inWord) {
+                        ++words;
+                        inWord = true;
+                    }
+                } else {
+                    inWord = false;
+                    if (byteClass == CLASS_NEWLINE) {
+                        ++lines;
+                    }
+                }
+            }
+            bytes += length;
+            if (decoder != null) {
+                decodeChars(data, length, false);
+            }
+            if (isMaxLineLength) {
+                measureLines(data, length);
+            }
+        }
+
+        private void finish() {
+            if (decoder != null) {
+                decodeChars(new byte[0], 0, true);
+            }
+            maxLineLength = Math.max(maxLineLength, lineLength);
+        }
+
+        private void decodeChars(byte[] data, int length, boolean isEndOfInput) {
+            int offset = 0;
+            do {
+                int chunk = Math.min(undecoded.remaining(), length - offset);
+                undecoded.put(data, offset, chunk);
+                offset += chunk;
+                undecoded.flip();
+                boolean isLast = isEndOfInput && offset == length;
+                while (decoder.decode(undecoded, decoded, isLast).isOverflow()) {
+                    countDecoded();
+                }
+                if (isLast) {
+                    while (decoder.flush(decoded).isOverflow()) {
+                        countDecoded();
+                    }
+                }
+                countDecoded();
+                undecoded.compact();
+            } while (offset < length);
+        }
+
+        private void countDecoded() {
+            decoded.flip();
+            while (decoded.hasRemaining()) {
+                // A surrogate pair is a single character
+                if (!Character.isLowSurrogate(decoded.get())) {
+                    ++chars;
+                }
+            }
+            decoded.clear();
+        }
+
+        /**
+         * Tracks the display width of the current line: tabs advance to the next multiple of eight, control
+         * characters and UTF-8 continuation bytes take no width, and carriage returns and form feeds start over.
+         */
+        private void measureLines(byte[] data, int length) {
+            for (int i = 0; i < length; ++i) {
+                int value = data[i] & 0xFF;
+                if (value == '\n' || value == '\r' || value == '\f') {
+                    maxLineLength = Math.max(maxLineLength, lineLength);
+                    lineLength = 0;
+                } else if (value == '\t') {
+                    lineLength += TAB_WIDTH - lineLength % TAB_WIDTH;
+                } else if (value >= ' ' && value != 0x7F && (value & 0xC0) != 0x80) {
+                    ++lineLength;
+                }
+            }
+        }
+
+        private void append(WordCount next) {
+            if (next.bytes == 0) {
+                return;
+            }
+            if (bytes == 0) {
+                startsInWord = next.startsInWord;
+            }
+            lines += next.lines;
+            words += next.words - (inWord && next.startsInWord ? 1 : 0);
+            bytes += next.bytes;
+            chars += next.chars;
+            maxLineLength = Math.max(maxLineLength, next.maxLineLength);
+            inWord = next.inWord;
+        }
+
+        private long[] toReport() {
+            return new long[]{lines, words, bytes, chars, maxLineLength};
+        }
     }
 }
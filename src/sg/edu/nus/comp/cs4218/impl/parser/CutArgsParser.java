@@ -11,11 +11,24 @@ import static sg.edu.nus.comp.cs4218.impl.util.ErrorConstants.*;
 import static sg.edu.nus.comp.cs4218.impl.util.StringUtils.STRING_STDIN_DASH;
 
 public class CutArgsParser extends ArgsParser {
+    public static final char DEFAULT_DELIMITER = '\t';
+    public static final String ERR_DELIM_LENGTH = "The delimiter must be a single character";
+    public static final String ERR_FIELDS_ONLY = "An input delimiter or -s may be specified only when " +
+            "operating on fields";
+
     private boolean isCharPosition;
     private boolean isBytePosition;
+    private boolean isFieldPosition;
+    private boolean isOnlyDelimited;
+    private boolean isParallel;
+    private String delimiter;
 
     private static final String BYTE_OP = "-b";
     private static final String CHAR_OP = "-c";
+    private static final String FIELD_OP = "-f";
+    private static final String DELIM_OP = "-d";
+    private static final String ONLY_DELIMITED_OP = "-s";
+    private static final String PARALLEL_OP = "--parallel";
 
     private final List<int[]> ranges;
     private final List<String> fileNames;
@@ -23,6 +36,9 @@ public class CutArgsParser extends ArgsParser {
     public CutArgsParser() {
         isCharPosition = false;
         isBytePosition = false;
+        isFieldPosition = false;
+        isOnlyDelimited = false;
+        isParallel = false;
         ranges = new ArrayList<>();
         fileNames = new ArrayList<>();
     }
@@ -35,6 +51,31 @@ public class CutArgsParser extends ArgsParser {
         return isBytePosition;
     }
 
+    public boolean isFieldPo() {
+        return isFieldPosition;
+    }
+
+    /**
+     * Returns true if lines containing no delimiter should be left out in field mode.
+     */
+    public boolean isOnlyDelimited() {
+        return isOnlyDelimited;
+    }
+
+    /**
+     * Returns true if large files should be cut in chunks on several threads.
+     */
+    public boolean isParallel() {
+        return isParallel;
+    }
+
+    /**
+     * Returns the field delimiter, which is a tab unless -d is given.
+     */
+    public char getDelimiter() {
+        return delimiter == null ? DEFAULT_DELIMITER : delimiter.charAt(0);
+    }
+
     public List<int[]> getRanges() {
         return ranges;
     }
@@ -43,6 +84,11 @@ public class CutArgsParser extends ArgsParser {
         return fileNames;
     }
 
+    /**
+     * Parses the arguments in the form OPTION LIST [FILES...], where OPTION is -c, -b or -f. The field options
+     * -d DELIM and -s, and --parallel, may appear anywhere before the files. Once the first file has been
+     * parsed, every remaining argument is taken as a file, so that a file named like an option can be cut.
+     */
     public void parse(String... args) throws InvalidArgsException {
         if (args == null || args.length < 1) {
             throw new InvalidArgsException("No arguments provided.");
@@ -52,16 +98,34 @@ public class CutArgsParser extends ArgsParser {
         boolean hasRange = false;
 
         for (int argIdx = 0; argIdx < args.length; argIdx++) {
-            if (optionParsed) {
-                parseArgument(args[argIdx], hasRange);
+            String arg = args[argIdx];
+            if (!fileNames.isEmpty()) {
+                parseFileName(arg);
+            } else if (arg.equals(DELIM_OP)) {
+                if (argIdx + 1 >= args.length) {
+                    throw new InvalidArgsException(ERR_MISSING_ARG);
+                }
+                parseDelimiter(args[++argIdx]);
+            } else if (arg.startsWith(DELIM_OP)) {
+                parseDelimiter(arg.substring(DELIM_OP.length()));
+            } else if (arg.equals(ONLY_DELIMITED_OP)) {
+                isOnlyDelimited = true;
+            } else if (arg.equals(PARALLEL_OP)) {
+                isParallel = true;
+            } else if (optionParsed) {
+                parseArgument(arg, hasRange);
                 if (!hasRange) {
                     hasRange = true;
                 }
             } else {
-                parseOption(args[argIdx]);
+                parseOption(arg);
                 optionParsed = true;
             }
         }
+
+        if (!isFieldPosition && (delimiter != null || isOnlyDelimited)) {
+            throw new InvalidArgsException(ERR_FIELDS_ONLY);
+        }
     }
 
     private void parseOption(String arg) throws InvalidArgsException {
@@ -69,11 +133,20 @@ public class CutArgsParser extends ArgsParser {
             isCharPosition = true;
         } else if (arg.equals(BYTE_OP)) {
             isBytePosition = true;
+        } else if (arg.equals(FIELD_OP)) {
+            isFieldPosition = true;
         } else {
             throw new InvalidArgsException(ERR_INVALID_FLAG + ": " + arg);
         }
     }
 
+    private void parseDelimiter(String arg) throws InvalidArgsException {
+        if (arg.length() != 1) {
+            throw new InvalidArgsException(ERR_DELIM_LENGTH);
+        }
+        delimiter = arg;
+    }
+
     private void parseArgument(String arg, boolean hasRange) throws InvalidArgsException {
         if (arg.contains(",")) {
             String[] charTokens = arg.split(",");
@@ -5,11 +5,17 @@ import java.util.List;
 public class LsArgsParser extends ArgsParser {
     private final static char FLAG_IS_RECURSIVE = 'R';
     private final static char FLAG_SORT_BY_EXT = 'X';
+    private final static char FLAG_IS_LONG = 'l';
+    private final static char FLAG_SORT_BY_TIME = 't';
+    private final static char FLAG_SORT_BY_SIZE = 'S';
 
     public LsArgsParser() {
         super();
         legalFlags.add(FLAG_IS_RECURSIVE);
         legalFlags.add(FLAG_SORT_BY_EXT);
+        legalFlags.add(FLAG_IS_LONG);
+        legalFlags.add(FLAG_SORT_BY_TIME);
+        legalFlags.add(FLAG_SORT_BY_SIZE);
     }
 
     public Boolean isRecursive() {
@@ -20,6 +26,18 @@ public class LsArgsParser extends ArgsParser {
         return flags.contains(FLAG_SORT_BY_EXT);
     }
 
+    public Boolean isLong() {
+        return flags.contains(FLAG_IS_LONG);
+    }
+
+    public Boolean isSortByTime() {
+        return flags.contains(FLAG_SORT_BY_TIME);
+    }
+
+    public Boolean isSortBySize() {
+        return flags.contains(FLAG_SORT_BY_SIZE);
+    }
+
     public List<String> getDirectories() {
         return nonFlagArgs;
     }
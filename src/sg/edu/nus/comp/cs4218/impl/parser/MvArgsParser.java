@@ -1,21 +1,53 @@
 package sg.edu.nus.comp.cs4218.impl.parser;
+import sg.edu.nus.comp.cs4218.exception.InvalidArgsException;
+
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
 
 public class MvArgsParser extends ArgsParser {
     private static final char FLAG_NO_OVERWRITE = 'n';
     public static final String INSUFFICIENT_ARGS = "us";
+    public static final String VERIFY_OPTION = "--verify";
     private String[] filesToMove;
     private String destFolder;
+    private boolean isVerify;
 
     public MvArgsParser() {
         super();
         legalFlags.add(FLAG_NO_OVERWRITE);
     }
 
+    /**
+     * Extracts --verify before handing the remaining arguments to the generic flag parser.
+     *
+     * @param args Tokenized arguments of the mv command
+     * @throws InvalidArgsException If an unknown flag is given
+     */
+    @Override
+    public void parse(String... args) throws InvalidArgsException {
+        List<String> remainingArgs = new ArrayList<>();
+        for (String arg : args) {
+            if (VERIFY_OPTION.equals(arg)) {
+                isVerify = true;
+            } else {
+                remainingArgs.add(arg);
+            }
+        }
+        super.parse(remainingArgs.toArray(new String[0]));
+    }
+
     public boolean isOverwrite() {
         return !flags.contains(FLAG_NO_OVERWRITE);
     }
 
+    /**
+     * Returns true if files copied between filesystems should be compared with their source before it is deleted.
+     */
+    public boolean isVerify() {
+        return isVerify;
+    }
+
     public String[] getFilesToMove() {
         if (filesToMove == null) {
             separateArguments();
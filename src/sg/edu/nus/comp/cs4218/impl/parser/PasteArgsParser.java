@@ -1,9 +1,23 @@
 package sg.edu.nus.comp.cs4218.impl.parser;
 
+import sg.edu.nus.comp.cs4218.exception.InvalidArgsException;
+
+import java.util.ArrayList;
 import java.util.List;
 
+import static sg.edu.nus.comp.cs4218.impl.util.ErrorConstants.ERR_MISSING_ARG;
+import static sg.edu.nus.comp.cs4218.impl.util.StringUtils.CHAR_FLAG_PREFIX;
+
 public class PasteArgsParser extends ArgsParser {
     public static final char S_FLAG = 's';
+    public static final String READ_AHEAD_OPTION = "--read-ahead";
+    public static final String DELIMITER_OPTION = "-d";
+    public static final char DELIMITER_FLAG = 'd';
+    public static final String[] DEFAULT_DELIMITERS = {"\t"};
+    public static final String ERR_TRAILING_BACKSLASH = "delimiter list ends with an unescaped backslash";
+
+    private boolean isReadAhead;
+    private String[] delimiters = DEFAULT_DELIMITERS;
 
     public PasteArgsParser() {
         super();
@@ -11,14 +25,96 @@ public class PasteArgsParser extends ArgsParser {
         legalFlags.add(S_FLAG);
     }
 
+    /**
+     * Extracts the read-ahead option and the delimiter list before handing the remaining arguments to the generic
+     * flag parser. The list follows d within a cluster of flags, as in "-d LIST", "-dLIST" or "-sd,": the rest of
+     * that argument is the list, or the next argument if nothing follows the d.
+     *
+     * @param args Tokenized arguments of the paste command
+     * @throws InvalidArgsException If an illegal flag is given, or the delimiter list is missing or invalid
+     */
+    @Override
+    public void parse(String... args) throws InvalidArgsException {
+        List<String> remainingArgs = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            int delimiterIndex = arg.indexOf(DELIMITER_FLAG);
+            if (READ_AHEAD_OPTION.equals(arg)) {
+                isReadAhead = true;
+            } else if (arg.length() > 1 && arg.charAt(0) == CHAR_FLAG_PREFIX && arg.charAt(1) != CHAR_FLAG_PREFIX
+                    && delimiterIndex > 0) {
+                if (delimiterIndex > 1) {
+                    remainingArgs.add(arg.substring(0, delimiterIndex));
+                }
+                if (delimiterIndex + 1 < arg.length()) {
+                    delimiters = parseDelimiters(arg.substring(delimiterIndex + 1));
+                } else if (i + 1 < args.length) {
+                    delimiters = parseDelimiters(args[++i]);
+                } else {
+                    throw new InvalidArgsException(ERR_MISSING_ARG + ": " + DELIMITER_OPTION);
+                }
+            } else {
+                remainingArgs.add(arg);
+            }
+        }
+        super.parse(remainingArgs.toArray(new String[0]));
+    }
+
+    /**
+     * Splits a delimiter list into its delimiters. The escapes "\n", "\t" and "\\" stand for a newline, a tab
+     * and a backslash, and "\0" stands for no delimiter. An empty list also means no delimiter.
+     */
+    private String[] parseDelimiters(String list) throws InvalidArgsException {
+        List<String> parsed = new ArrayList<>();
+        for (int i = 0; i < list.length(); i++) {
+            char current = list.charAt(i);
+            if (current != '\\') {
+                parsed.add(String.valueOf(current));
+                continue;
+            }
+            if (++i >= list.length()) {
+                throw new InvalidArgsException(ERR_TRAILING_BACKSLASH);
+            }
+            switch (list.charAt(i)) {
+                case 'n':
+                    parsed.add("\n");
+                    break;
+                case 't':
+                    parsed.add("\t");
+                    break;
+                case '0':
+                    parsed.add("");
+                    break;
+                default:
+                    parsed.add(String.valueOf(list.charAt(i)));
+                    break;
+            }
+        }
+        return parsed.isEmpty() ? new String[]{""} : parsed.toArray(new String[0]);
+    }
+
     public Boolean isSerial() {
         return flags.contains(S_FLAG);
     }
 
+    /**
+     * Returns the delimiters to cycle through, which is a single tab unless -d is given.
+     */
+    public String[] getDelimiters() {
+        return delimiters.clone();
+    }
+
+    /**
+     * Returns true if each input should be read ahead on its own thread.
+     */
+    public boolean isReadAhead() {
+        return isReadAhead;
+    }
+
     private Boolean noFlags() {
         return !flags.contains(S_FLAG);
     }
     public List<String> getFileNames() {
         return nonFlagArgs;
     }
-}
\ No newline at end of file
+}
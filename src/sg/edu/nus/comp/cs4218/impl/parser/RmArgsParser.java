@@ -1,18 +1,47 @@
 package sg.edu.nus.comp.cs4218.impl.parser;
 
+import sg.edu.nus.comp.cs4218.exception.InvalidArgsException;
+
 import java.util.ArrayList;
 import java.util.List;
 
 public class RmArgsParser extends ArgsParser {
     private static final char FLAG_EMPTY_FOLDER = 'd';
     private static final char FLAG_IS_RECURSIVE = 'r';
+    private static final char FLAG_IS_FORCE = 'f';
+    private static final char FLAG_IS_VERBOSE = 'v';
+
+    public static final String ASYNC_OPTION = "--async";
 
     private static final int INDEX_FILE_NAMES = 0;
 
+    private boolean isAsync;
+
     public RmArgsParser() {
         super();
         legalFlags.add(FLAG_EMPTY_FOLDER);
         legalFlags.add(FLAG_IS_RECURSIVE);
+        legalFlags.add(FLAG_IS_FORCE);
+        legalFlags.add(FLAG_IS_VERBOSE);
+    }
+
+    /**
+     * Extracts --async before handing the remaining arguments to the generic flag parser.
+     *
+     * @param args Tokenized arguments of the rm command
+     * @throws InvalidArgsException If an unknown flag is given
+     */
+    @Override
+    public void parse(String... args) throws InvalidArgsException {
+        List<String> remainingArgs = new ArrayList<>();
+        for (String arg : args) {
+            if (ASYNC_OPTION.equals(arg)) {
+                isAsync = true;
+            } else {
+                remainingArgs.add(arg);
+            }
+        }
+        super.parse(remainingArgs.toArray(new String[0]));
     }
 
     public Boolean isEmptyFolder() {
@@ -23,6 +52,27 @@ public class RmArgsParser extends ArgsParser {
         return flags.contains(FLAG_IS_RECURSIVE);
     }
 
+    /**
+     * Returns true if missing files should be ignored and permission pre-checks skipped.
+     */
+    public Boolean isForce() {
+        return flags.contains(FLAG_IS_FORCE);
+    }
+
+    /**
+     * Returns true if removed arguments and the progress of large removals should be reported.
+     */
+    public Boolean isVerbose() {
+        return flags.contains(FLAG_IS_VERBOSE);
+    }
+
+    /**
+     * Returns true if directories should be moved out of the way and deleted in the background.
+     */
+    public Boolean isAsync() {
+        return isAsync;
+    }
+
     public String[] getFileNames() {
         List<String> fileNames = new ArrayList<>();
         for (String arg : nonFlagArgs) {
@@ -1,18 +1,84 @@
 package sg.edu.nus.comp.cs4218.impl.parser;
 
+import sg.edu.nus.comp.cs4218.exception.InvalidArgsException;
+
+import java.util.ArrayList;
 import java.util.List;
 
+import static sg.edu.nus.comp.cs4218.impl.util.ErrorConstants.ERR_MISSING_ARG;
+import static sg.edu.nus.comp.cs4218.impl.util.StringUtils.CHAR_FLAG_PREFIX;
+
 public class SortArgsParser extends ArgsParser {
     public static final char N_FLAG = 'n';
     public static final char R_FLAG = 'r';
     public static final char F_FLAG = 'f';
+    public static final String TOP_OPTION = "--top";
+    public static final String ERR_INVALID_TOP = "invalid number of lines: ";
+    public static final int NO_TOP_COUNT = -1;
     private final static int INDEX_FILES = 0;
 
+    private int topCount;
+
     public SortArgsParser() {
         super();
         legalFlags.add(N_FLAG);
         legalFlags.add(R_FLAG);
         legalFlags.add(F_FLAG);
+        topCount = NO_TOP_COUNT;
+    }
+
+    /**
+     * Extracts the top-N option, given either as "--top N" or as "-N", before handing the remaining
+     * arguments to the generic flag parser.
+     *
+     * @param args Tokenized arguments of the sort command
+     * @throws InvalidArgsException If the top-N option is missing its value or the value is not a
+     *                              non-negative integer
+     */
+    @Override
+    public void parse(String... args) throws InvalidArgsException {
+        List<String> remainingArgs = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (TOP_OPTION.equals(arg)) {
+                if (i + 1 >= args.length) {
+                    throw new InvalidArgsException(ERR_MISSING_ARG + ": " + TOP_OPTION);
+                }
+                topCount = parseTopCount(args[++i]);
+            } else if (isNumericFlag(arg)) {
+                topCount = parseTopCount(arg.substring(1));
+            } else {
+                remainingArgs.add(arg);
+            }
+        }
+        super.parse(remainingArgs.toArray(new String[0]));
+    }
+
+    private boolean isNumericFlag(String arg) {
+        if (arg.length() < 2 || arg.charAt(0) != CHAR_FLAG_PREFIX) {
+            return false;
+        }
+        for (int i = 1; i < arg.length(); i++) {
+            if (!Character.isDigit(arg.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int parseTopCount(String value) throws InvalidArgsException {
+        int count;
+        try {
+            count = Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            InvalidArgsException exception = new InvalidArgsException(ERR_INVALID_TOP + value);
+            exception.initCause(e);
+            throw exception;
+        }
+        if (count < 0) {
+            throw new InvalidArgsException(ERR_INVALID_TOP + value);
+        }
+        return count;
     }
 
     public Boolean isFirstWordNumber() {
@@ -27,6 +93,14 @@ public class SortArgsParser extends ArgsParser {
         return flags.contains(F_FLAG);
     }
 
+    public boolean isTopN() {
+        return topCount != NO_TOP_COUNT;
+    }
+
+    public int getTopCount() {
+        return topCount;
+    }
+
     public List<String> getFileNames() {
         return nonFlagArgs;
     }
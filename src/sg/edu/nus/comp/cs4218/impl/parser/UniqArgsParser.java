@@ -1,19 +1,86 @@
 package sg.edu.nus.comp.cs4218.impl.parser;
 
+import sg.edu.nus.comp.cs4218.exception.InvalidArgsException;
+
+import java.util.ArrayList;
 import java.util.List;
 
+import static sg.edu.nus.comp.cs4218.impl.util.ErrorConstants.ERR_MISSING_ARG;
+
 public class UniqArgsParser extends ArgsParser {
     public static final char FLAG_IS_COUNT = 'c';
     public static final char FLAG_IS_REPEATED = 'd';
     public static final char FLAG_ALL_REPEATED = 'D';
+    public static final char FLAG_IS_UNIQUE = 'u';
+    public static final char FLAG_IGNORE_CASE = 'i';
+    public static final String SKIP_FIELDS_OPTION = "-f";
+    public static final String SKIP_CHARS_OPTION = "-s";
+    public static final String GLOBAL_OPTION = "--global";
+    public static final String ERR_INVALID_FIELDS = "invalid number of fields to skip: ";
+    public static final String ERR_INVALID_CHARS = "invalid number of bytes to skip: ";
 
     private final static int INDEX_FILES = 0;
 
+    private int skipFields;
+    private int skipChars;
+    private boolean isGlobal;
+
     public UniqArgsParser() {
         super();
         legalFlags.add(FLAG_IS_COUNT);
         legalFlags.add(FLAG_IS_REPEATED);
         legalFlags.add(FLAG_ALL_REPEATED);
+        legalFlags.add(FLAG_IS_UNIQUE);
+        legalFlags.add(FLAG_IGNORE_CASE);
+    }
+
+    /**
+     * Extracts the skip options, given either as "-f N" and "-s N" or as "-fN" and "-sN", and --global before
+     * handing the remaining arguments to the generic flag parser.
+     *
+     * @param args Tokenized arguments of the uniq command
+     * @throws InvalidArgsException If a skip option is missing its value or the value is not a non-negative integer
+     */
+    @Override
+    public void parse(String... args) throws InvalidArgsException {
+        List<String> remainingArgs = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (GLOBAL_OPTION.equals(arg)) {
+                isGlobal = true;
+            } else if (SKIP_FIELDS_OPTION.equals(arg) || SKIP_CHARS_OPTION.equals(arg)) {
+                if (i + 1 >= args.length) {
+                    throw new InvalidArgsException(ERR_MISSING_ARG + ": " + arg);
+                }
+                parseSkip(arg, args[++i]);
+            } else if (arg.startsWith(SKIP_FIELDS_OPTION) || arg.startsWith(SKIP_CHARS_OPTION)) {
+                parseSkip(arg.substring(0, 2), arg.substring(2));
+            } else {
+                remainingArgs.add(arg);
+            }
+        }
+        super.parse(remainingArgs.toArray(new String[0]));
+    }
+
+    private void parseSkip(String option, String value) throws InvalidArgsException {
+        boolean isFields = SKIP_FIELDS_OPTION.equals(option);
+        String message = (isFields ? ERR_INVALID_FIELDS : ERR_INVALID_CHARS) + value;
+        int count;
+        try {
+            count = Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            InvalidArgsException exception = new InvalidArgsException(message);
+            exception.initCause(e);
+            throw exception;
+        }
+        if (count < 0) {
+            throw new InvalidArgsException(message);
+        }
+        if (isFields) {
+            skipFields = count;
+        } else {
+            skipChars = count;
+        }
     }
 
     public Boolean isCount() {
@@ -28,6 +95,41 @@ public class UniqArgsParser extends ArgsParser {
         return flags.contains(FLAG_ALL_REPEATED);
     }
 
+    /**
+     * Returns true if only lines that are not repeated should be printed.
+     */
+    public boolean isUnique() {
+        return flags.contains(FLAG_IS_UNIQUE);
+    }
+
+    /**
+     * Returns true if lines should be compared without regard to case.
+     */
+    public boolean isIgnoreCase() {
+        return flags.contains(FLAG_IGNORE_CASE);
+    }
+
+    /**
+     * Returns the number of leading fields to skip before comparing lines.
+     */
+    public int getSkipFields() {
+        return skipFields;
+    }
+
+    /**
+     * Returns the number of bytes to skip, after the skipped fields, before comparing lines.
+     */
+    public int getSkipChars() {
+        return skipChars;
+    }
+
+    /**
+     * Returns true if every duplicate line should be removed, not only adjacent ones.
+     */
+    public boolean isGlobal() {
+        return isGlobal;
+    }
+
     public List<String> getFileNames() {
         return nonFlagArgs;
     }
@@ -9,12 +9,18 @@ public class WcArgsParser extends ArgsParser {
 
     public static final char WC_FLAG = 'w';
 
+    public static final char CC_FLAG = 'm';
+
+    public static final char MAX_LINE_FLAG = 'L';
+
     public WcArgsParser() {
         super();
 
         legalFlags.add(B_FLAG);
         legalFlags.add(LC_FLAG);
         legalFlags.add(WC_FLAG);
+        legalFlags.add(CC_FLAG);
+        legalFlags.add(MAX_LINE_FLAG);
     }
 
     public Boolean isByteCount() {
@@ -29,10 +35,20 @@ public class WcArgsParser extends ArgsParser {
         return flags.contains(WC_FLAG) || noFlags();
     }
 
+    public Boolean isCharCount() {
+        return flags.contains(CC_FLAG);
+    }
+
+    public Boolean isMaxLineLength() {
+        return flags.contains(MAX_LINE_FLAG);
+    }
+
     private Boolean noFlags() {
         return !flags.contains(B_FLAG) &&
                 !flags.contains(LC_FLAG) &&
-                !flags.contains(WC_FLAG);
+                !flags.contains(WC_FLAG) &&
+                !flags.contains(CC_FLAG) &&
+                !flags.contains(MAX_LINE_FLAG);
     }
     public List<String> getFileNames() {
         return nonFlagArgs;
@@ -27,6 +27,9 @@ public class ApplicationRunner {
     public final static String APP_TEE = "tee";
     public final static String APP_MV = "mv";
     public final static String APP_UNIQ = "uniq";
+    public final static String APP_PUSHD = "pushd";
+    public final static String APP_POPD = "popd";
+    public final static String APP_DIRS = "dirs";
 
     /**
      * Run the application as specified by the application command keyword and
@@ -97,6 +100,15 @@ public class ApplicationRunner {
             case APP_PASTE:
                 application = new PasteApplication();
                 break;
+            case APP_PUSHD:
+                application = new PushdApplication();
+                break;
+            case APP_POPD:
+                application = new PopdApplication();
+                break;
+            case APP_DIRS:
+                application = new DirsApplication();
+                break;
             default:
                 throw new ShellException(app + ": " + ERR_INVALID_APP);
         }
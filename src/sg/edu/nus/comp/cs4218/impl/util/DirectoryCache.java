@@ -0,0 +1,361 @@
+package sg.edu.nus.comp.cs4218.impl.util;
+
+import java.io.IOException;
+import java.nio.file.AccessDeniedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.NotDirectoryException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Shared cache of directory metadata and listings, keyed by absolute normalized path and bounded by an LRU.
+ * <p>
+ * Every lookup revalidates the cached entry with a single stat of the directory: the entry is reused only if the
+ * modification time, change time and file key are unchanged. A cached listing therefore costs one stat instead of
+ * reading the directory and statting each entry. Entries whose directory was modified within {@link #RACY_MILLIS}
+ * of being loaded are always reloaded, since a second change in the same timestamp tick would not be visible.
+ * <p>
+ * The LRU bounds the number of directories, and listings are further bounded by the total number of names they
+ * hold: once more than {@link #MAX_CACHED_NAMES} names are cached, the listings of the least recently used
+ * directories are dropped, keeping only their stamps. A directory of more than {@link #MAX_LISTING_NAMES} entries
+ * is never kept. Callers that walk whole trees should use {@link #readListing(Path)}, which bypasses the cache.
+ */
+public final class DirectoryCache {
+    public static final int CAPACITY = 1024;
+    public static final long RACY_MILLIS = 2000;
+    public static final int MAX_CACHED_NAMES = 65_536;
+    public static final int MAX_LISTING_NAMES = 8192;
+
+    private static final String UNIX_ATTRIBUTES = "unix:lastModifiedTime,ctime,fileKey,isDirectory";
+    private static final String ATTR_MODIFIED = "lastModifiedTime";
+    private static final String ATTR_CHANGED = "ctime";
+    private static final String ATTR_KEY = "fileKey";
+    private static final String ATTR_IS_DIR = "isDirectory";
+
+    private static final Map<Path, DirectoryInfo> ENTRIES = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Path, DirectoryInfo> eldest) {
+            if (size() <= CAPACITY) {
+                return false;
+            }
+            release(eldest.getValue());
+            return true;
+        }
+    };
+    private static final AtomicLong HITS = new AtomicLong();
+    private static final AtomicLong MISSES = new AtomicLong();
+    private static volatile boolean isUnixViewSupported = true;
+    private static int cachedNames;
+
+    private DirectoryCache() {
+    }
+
+    /**
+     * Looks up a directory, loading it if it is not cached or has changed since it was cached.
+     *
+     * @param path Path of the directory, resolved against the working directory of the JVM if relative.
+     * @return Cached information about the directory, or null if the path does not exist or is not a directory.
+     * @throws IOException If the attributes of the path cannot be read.
+     */
+    public static DirectoryInfo lookup(Path path) throws IOException {
+        Path key = path.toAbsolutePath().normalize();
+        Stamp stamp;
+        try {
+            stamp = readStamp(key);
+        } catch (NoSuchFileException e) {
+            invalidate(key);
+            return null;
+        }
+        if (!stamp.isDirectory) {
+            invalidate(key);
+            return null;
+        }
+
+        DirectoryInfo cached;
+        synchronized (ENTRIES) {
+            cached = ENTRIES.get(key);
+        }
+        if (cached != null && cached.isValid(stamp)) {
+            HITS.incrementAndGet();
+            return cached;
+        }
+
+        MISSES.incrementAndGet();
+        DirectoryInfo loaded = new DirectoryInfo(key, stamp, Files.isExecutable(key), System.currentTimeMillis());
+        synchronized (ENTRIES) {
+            release(ENTRIES.put(key, loaded));
+        }
+        return loaded;
+    }
+
+    /**
+     * Drops the cached entry of a directory, if any.
+     */
+    public static void invalidate(Path path) {
+        Path key = path.toAbsolutePath().normalize();
+        synchronized (ENTRIES) {
+            release(ENTRIES.remove(key));
+        }
+    }
+
+    /**
+     * Drops every cached entry and resets the hit and miss counts.
+     */
+    public static void clear() {
+        synchronized (ENTRIES) {
+            ENTRIES.clear();
+            cachedNames = 0;
+        }
+        HITS.set(0);
+        MISSES.set(0);
+    }
+
+    public static int size() {
+        synchronized (ENTRIES) {
+            return ENTRIES.size();
+        }
+    }
+
+    /**
+     * Returns the total number of names held by cached listings.
+     */
+    public static int getCachedNameCount() {
+        synchronized (ENTRIES) {
+            return cachedNames;
+        }
+    }
+
+    public static long getHitCount() {
+        return HITS.get();
+    }
+
+    public static long getMissCount() {
+        return MISSES.get();
+    }
+
+    /**
+     * Returns the fraction of lookups served from the cache, or 0 if there were no lookups.
+     */
+    public static double getHitRate() {
+        long hits = HITS.get();
+        long total = hits + MISSES.get();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    /**
+     * Reads the listing of a directory without caching it.
+     *
+     * @param directory Path of the directory.
+     * @return The names of all entries in the directory, and which of them are directories.
+     * @throws IOException If the directory cannot be read.
+     */
+    public static Listing readListing(Path directory) throws IOException {
+        List<String> entries = new ArrayList<>();
+        Set<String> directories = new HashSet<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+            for (Path path : stream) {
+                String name = path.getFileName().toString();
+                entries.add(name);
+                if (Files.isDirectory(path)) {
+                    directories.add(name);
+                }
+            }
+        }
+        Collections.sort(entries);
+        return new Listing(Collections.unmodifiableList(entries), directories);
+    }
+
+    /**
+     * Keeps a listing with its entry if the entry is still cached and the listing is small enough, then drops the
+     * listings of the least recently used entries until the cached names are within {@link #MAX_CACHED_NAMES}.
+     */
+    private static void retain(DirectoryInfo info, Listing listing) {
+        synchronized (ENTRIES) {
+            if (listing.size() > MAX_LISTING_NAMES || ENTRIES.get(info.directory) != info || info.listing != null) {
+                return;
+            }
+            info.listing = listing;
+            cachedNames += listing.size();
+            for (DirectoryInfo eldest : ENTRIES.values()) {
+                if (cachedNames <= MAX_CACHED_NAMES) {
+                    break;
+                }
+                if (eldest != info) {
+                    release(eldest);
+                }
+            }
+        }
+    }
+
+    /**
+     * Drops the listing of an entry, if any. Must be called while holding the lock on the entries.
+     */
+    private static void release(DirectoryInfo info) {
+        if (info != null && info.listing != null) {
+            cachedNames -= info.listing.size();
+            info.listing = null;
+        }
+    }
+
+    /**
+     * Reads the attributes used to validate cache entries with a single stat, following symbolic links. The change
+     * time is only available through the unix attribute view; without it a change of permissions is not noticed.
+     */
+    private static Stamp readStamp(Path path) throws IOException {
+        if (isUnixViewSupported) {
+            try {
+                Map<String, Object> attributes = Files.readAttributes(path, UNIX_ATTRIBUTES);
+                return new Stamp((FileTime) attributes.get(ATTR_MODIFIED), (FileTime) attributes.get(ATTR_CHANGED),
+                        attributes.get(ATTR_KEY), (Boolean) attributes.get(ATTR_IS_DIR));
+            } catch (UnsupportedOperationException | IllegalArgumentException e) {
+                isUnixViewSupported = false;
+            }
+        }
+        BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        return new Stamp(attributes.lastModifiedTime(), null, attributes.fileKey(), attributes.isDirectory());
+    }
+
+    /**
+     * Cached information about one directory. The listing is read the first time it is asked for, so that looking
+     * up the ancestors of a path does not read their contents, and may be dropped again to bound memory.
+     */
+    public static final class DirectoryInfo {
+        private final Path directory;
+        private final Stamp stamp;
+        private final boolean isExecutable;
+        private final boolean isRacy;
+        private volatile Listing listing;
+
+        private DirectoryInfo(Path directory, Stamp stamp, boolean isExecutable, long loadedAt) {
+            this.directory = directory;
+            this.stamp = stamp;
+            this.isExecutable = isExecutable;
+            this.isRacy = stamp.lastModified.toMillis() > loadedAt - RACY_MILLIS;
+        }
+
+        private boolean isValid(Stamp current) {
+            return !isRacy && stamp.equals(current);
+        }
+
+        public Path getDirectory() {
+            return directory;
+        }
+
+        /**
+         * Returns true if the directory can be entered.
+         */
+        public boolean isExecutable() {
+            return isExecutable;
+        }
+
+        /**
+         * Returns the names of all entries in the directory, hidden ones included, sorted by name.
+         *
+         * @throws IOException If the directory cannot be read.
+         */
+        public List<String> getNames() throws IOException {
+            return getListing().getNames();
+        }
+
+        /**
+         * Returns true if the named entry is a directory or a symbolic link to one.
+         *
+         * @throws IOException If the directory cannot be read.
+         */
+        public boolean isDirectory(String name) throws IOException {
+            return getListing().isDirectory(name);
+        }
+
+        /**
+         * Returns the listing of the directory, reading it if it is not cached.
+         *
+         * @throws IOException If the directory cannot be read.
+         */
+        public Listing getListing() throws IOException {
+            Listing current = listing;
+            if (current != null) {
+                return current;
+            }
+            try {
+                current = readListing(directory);
+            } catch (AccessDeniedException | NotDirectoryException e) {
+                invalidate(directory);
+                throw e;
+            }
+            retain(this, current);
+            return current;
+        }
+    }
+
+    /**
+     * The entries of a directory at the time it was read.
+     */
+    public static final class Listing {
+        private final List<String> names;
+        private final Set<String> subdirectories;
+
+        private Listing(List<String> names, Set<String> subdirectories) {
+            this.names = names;
+            this.subdirectories = subdirectories;
+        }
+
+        /**
+         * Returns the names of all entries, hidden ones included, sorted by name.
+         */
+        public List<String> getNames() {
+            return names;
+        }
+
+        /**
+         * Returns true if the named entry is a directory or a symbolic link to one.
+         */
+        public boolean isDirectory(String name) {
+            return subdirectories.contains(name);
+        }
+
+        public int size() {
+            return names.size();
+        }
+    }
+
+    private static final class Stamp {
+        private final FileTime lastModified;
+        private final FileTime changed;
+        private final Object fileKey;
+        private final boolean isDirectory;
+
+        private Stamp(FileTime lastModified, FileTime changed, Object fileKey, boolean isDirectory) {
+            this.lastModified = lastModified;
+            this.changed = changed;
+            this.fileKey = fileKey;
+            this.isDirectory = isDirectory;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Stamp)) {
+                return false;
+            }
+            Stamp stamp = (Stamp) other;
+            return isDirectory == stamp.isDirectory && lastModified.equals(stamp.lastModified)
+                    && Objects.equals(changed, stamp.changed) && Objects.equals(fileKey, stamp.fileKey);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(lastModified, changed, fileKey, isDirectory);
+        }
+    }
+}
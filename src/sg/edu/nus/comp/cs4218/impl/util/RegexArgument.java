@@ -3,6 +3,7 @@ package sg.edu.nus.comp.cs4218.impl.util;
 import sg.edu.nus.comp.cs4218.Environment;
 
 import java.io.File;
+import java.io.IOException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
@@ -91,20 +92,26 @@ public final class RegexArgument {
                 currentDir = Paths.get(Environment.currentDirectory + File.separator + dir).toFile();
             }
 
-            if (tokens[0].equals("*") && !plaintext.toString().equals("*")) {
-                for (String fileName : currentDir.list()) {
-                    File file = new File(currentDir + File.separator + fileName);
-                    if (file.isDirectory()) {
-                        globbedFiles.add(fileName);
+            try {
+                DirectoryCache.DirectoryInfo info = DirectoryCache.lookup(currentDir.toPath());
+                List<String> names = info == null ? Collections.emptyList() : info.getNames();
+                if (tokens[0].equals("*") && !plaintext.toString().equals("*")) {
+                    for (String fileName : names) {
+                        if (info.isDirectory(fileName)) {
+                            globbedFiles.add(fileName);
+                        }
                     }
-                }
-                return globbedFiles;
-            } else {
-                for (String candidate : currentDir.list()) {
-                    if (regexPattern.matcher(dir + candidate).matches()) {
-                        globbedFiles.add(dir + candidate);
+                    return globbedFiles;
+                } else {
+                    for (String candidate : names) {
+                        if (regexPattern.matcher(dir + candidate).matches()) {
+                            globbedFiles.add(dir + candidate);
+                        }
                     }
                 }
+            } catch (IOException e) {
+                // An unreadable directory matches nothing, leaving the argument as it is.
+                globbedFiles.clear();
             }
 
             Collections.sort(globbedFiles);